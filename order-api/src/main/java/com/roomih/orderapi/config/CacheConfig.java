@@ -0,0 +1,33 @@
+package com.roomih.orderapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PUBLICATIONS = "publications";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.catalog-cache.publications.max-size:1000}") long publicationsMaxSize,
+            @Value("${app.catalog-cache.publications.ttl-seconds:600}") long publicationsTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PUBLICATIONS, Caffeine.newBuilder()
+                .maximumSize(publicationsMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(publicationsTtl))
+                .recordStats()
+                .build());
+        // Инвалидация после коммита, чтобы параллельное чтение не закэшировало старые данные
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -1,4 +1,4 @@
 package com.roomih.orderapi.dto;
 
-public record AuthResponse(String accessToken) {
+public record AuthResponse(String accessToken, String refreshToken) {
 }
@@ -0,0 +1,18 @@
+package com.roomih.orderapi.dto;
+
+import com.roomih.orderapi.model.PublicationType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Счётчики для фильтров каталога. Счётчик типа учитывает все фильтры, кроме фильтра по типу,
+ * счётчик ценового диапазона — все, кроме фильтра по цене: так видно, сколько найдётся
+ * при выборе соседнего значения.
+ */
+public record CatalogFacets(Map<PublicationType, Integer> types, List<PriceBucket> prices) {
+
+    // to == null — диапазон без верхней границы
+    public record PriceBucket(double from, Double to, int count) {
+    }
+}
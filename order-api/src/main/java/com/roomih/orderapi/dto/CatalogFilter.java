@@ -0,0 +1,35 @@
+package com.roomih.orderapi.dto;
+
+import com.roomih.orderapi.model.PublicationType;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Фильтры каталога. Пустые поля не ограничивают выборку; createdAfter — «не раньше этого дня».
+ */
+public record CatalogFilter(String searchQuery,
+                            Set<PublicationType> types,
+                            Double minPrice,
+                            Double maxPrice,
+                            LocalDate createdAfter) {
+
+    public CatalogFilter {
+        types = types == null ? Set.of() : Set.copyOf(types);
+    }
+
+    public static CatalogFilter none() {
+        return new CatalogFilter(null, null, null, null, null);
+    }
+
+    public boolean hasSearchQuery() {
+        return searchQuery != null && !searchQuery.isBlank();
+    }
+
+    // Стабильный ключ для кэша готовых страниц: типы в одном порядке при любом порядке в запросе
+    public String cacheKey() {
+        return (searchQuery == null ? "" : searchQuery) + "|" + new TreeSet<>(types) + "|" + minPrice + "|" + maxPrice
+                + "|" + createdAfter;
+    }
+}
@@ -0,0 +1,12 @@
+package com.roomih.orderapi.dto;
+
+/**
+ * Порядок курсорной выдачи каталога. Id всегда добавляется вторым ключом,
+ * чтобы порядок был строгим.
+ */
+public enum CatalogOrder {
+    // created_at desc, id desc
+    NEWEST,
+    // title asc, id asc
+    TITLE
+}
@@ -0,0 +1,15 @@
+package com.roomih.orderapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Страница курсорной выдачи. Курсоры непрозрачны для клиента и равны null,
+ * если в эту сторону листать некуда. totalElements заполняется только по запросу.
+ */
+public record CursorPage<T>(List<T> content,
+                            String nextCursor,
+                            String prevCursor,
+                            @JsonInclude(JsonInclude.Include.NON_NULL) Long totalElements) {
+}
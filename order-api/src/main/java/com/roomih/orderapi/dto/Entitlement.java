@@ -0,0 +1,6 @@
+package com.roomih.orderapi.dto;
+
+import java.time.LocalDateTime;
+
+public record Entitlement(Long publicationId, LocalDateTime endDate) {
+}
@@ -0,0 +1,15 @@
+package com.roomih.orderapi.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class EntitlementCheckRequest {
+    @NotEmpty(message = "Список публикаций обязателен")
+    @Size(max = 200, message = "За один запрос можно проверить не более 200 публикаций")
+    private List<@NotNull Long> publicationIds;
+}
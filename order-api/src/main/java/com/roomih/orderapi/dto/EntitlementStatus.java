@@ -0,0 +1,15 @@
+package com.roomih.orderapi.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Есть ли у пользователя активная подписка на публикацию и до какого числа.
+ */
+public record EntitlementStatus(boolean active, LocalDateTime endDate) {
+
+    private static final EntitlementStatus NONE = new EntitlementStatus(false, null);
+
+    public static EntitlementStatus of(LocalDateTime endDate) {
+        return endDate == null ? NONE : new EntitlementStatus(true, endDate);
+    }
+}
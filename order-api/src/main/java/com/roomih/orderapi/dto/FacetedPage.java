@@ -0,0 +1,23 @@
+package com.roomih.orderapi.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Обычная страница с добавленными счётчиками фильтров — старые клиенты читают content как раньше.
+ */
+public class FacetedPage<T> extends PageImpl<T> {
+
+    private final CatalogFacets facets;
+
+    public FacetedPage(List<T> content, Pageable pageable, long total, CatalogFacets facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public CatalogFacets getFacets() {
+        return facets;
+    }
+}
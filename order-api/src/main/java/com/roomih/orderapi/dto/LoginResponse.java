@@ -11,4 +11,5 @@ public class LoginResponse {
     private String token;
     private String username;
     private String role;
+    private String refreshToken;
 }
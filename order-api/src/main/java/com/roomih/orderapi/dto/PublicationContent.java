@@ -0,0 +1,4 @@
+package com.roomih.orderapi.dto;
+
+public record PublicationContent(Long id, String content) {
+}
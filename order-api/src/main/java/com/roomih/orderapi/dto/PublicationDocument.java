@@ -0,0 +1,17 @@
+package com.roomih.orderapi.dto;
+
+import com.roomih.orderapi.model.PublicationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Публикация целиком, но без сущности и её связей: для полнотекстового индекса и карточки публикации.
+ * Запись неизменяема, поэтому один экземпляр можно отдавать из кэша всем вызывающим.
+ */
+public record PublicationDocument(Long id, String title, String description, PublicationType type,
+                                  Double pricePerMonth, LocalDateTime createdAt, String content) {
+
+    public PublicationSummary summary() {
+        return new PublicationSummary(id, title, description, type, pricePerMonth, createdAt);
+    }
+}
@@ -0,0 +1,12 @@
+package com.roomih.orderapi.dto;
+
+import com.roomih.orderapi.model.PublicationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Публикация для списков каталога — без тяжёлого поля content.
+ */
+public record PublicationSummary(Long id, String title, String description, PublicationType type,
+                                 Double pricePerMonth, LocalDateTime createdAt) {
+}
@@ -0,0 +1,8 @@
+package com.roomih.orderapi.dto;
+
+/**
+ * Результат полнотекстового поиска. snippet — фрагмент текста с найденными словами
+ * в &lt;mark&gt;, уже экранированный для HTML.
+ */
+public record SearchHit(PublicationSummary publication, float score, String snippet) {
+}
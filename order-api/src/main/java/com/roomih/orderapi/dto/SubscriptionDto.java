@@ -13,6 +13,8 @@ public class SubscriptionDto {
     private PublicationDto publication;
     private LocalDate startDate;
     private LocalDate endDate;
+    private Integer subscriptionPeriod;
     private Double totalPrice;
     private Integer quantity;
+    private boolean active;
 }
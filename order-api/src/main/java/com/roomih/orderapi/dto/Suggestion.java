@@ -0,0 +1,7 @@
+package com.roomih.orderapi.dto;
+
+/**
+ * Подсказка для строки поиска: только то, что нужно выпадающему списку.
+ */
+public record Suggestion(Long id, String title) {
+}
@@ -0,0 +1,105 @@
+package com.roomih.orderapi.entitlement;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.roomih.orderapi.dto.EntitlementStatus;
+import com.roomih.orderapi.event.SubscriptionChangedEvent;
+import com.roomih.orderapi.repository.SubscriptionRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Доступы пользователей к публикациям в памяти. Пользователь загружается одним запросом
+ * при первом обращении, дальше поддерживается событиями SubscriptionChangedEvent.
+ * Объём ограничен по байтам, холодные пользователи вытесняются.
+ */
+@Slf4j
+@Component
+public class EntitlementStore implements MeterBinder {
+
+    // Узел Caffeine и ключ Long сверх самих массивов
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final Cache<Long, UserEntitlements> cache;
+
+    public EntitlementStore(SubscriptionRepository subscriptionRepository,
+                            @Value("${app.entitlement-store.max-bytes:33554432}") long maxBytes,
+                            @Value("${app.entitlement-store.ttl-seconds:3600}") long ttlSeconds) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long userId, UserEntitlements entitlements) -> ENTRY_OVERHEAD_BYTES + entitlements.footprintBytes())
+                // Страховка на случай изменений в обход сервиса
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public EntitlementStatus status(Long userId, Long publicationId) {
+        return status(load(userId), publicationId, LocalDateTime.now());
+    }
+
+    public Map<Long, EntitlementStatus> statuses(Long userId, Collection<Long> publicationIds) {
+        UserEntitlements entitlements = load(userId);
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, EntitlementStatus> statuses = new LinkedHashMap<>();
+        for (Long publicationId : publicationIds) {
+            statuses.put(publicationId, status(entitlements, publicationId, now));
+        }
+        return statuses;
+    }
+
+    // Изменение применяется только к уже загруженному пользователю. Если загрузка идёт
+    // параллельно, computeIfPresent дождётся её и применит изменение поверх: with/without идемпотентны
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        log.debug("Entitlement of user {} to publication {} changed, active until {}",
+                event.userId(), event.publicationId(), event.endDate());
+        cache.asMap().computeIfPresent(event.userId(), (userId, entitlements) -> event.endDate() == null
+                ? entitlements.without(event.publicationId())
+                : entitlements.with(event.publicationId(), event.endDate()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "entitlements");
+        Gauge.builder("entitlements.store.bytes", this, EntitlementStore::footprintBytes)
+                .description("Estimated heap footprint of cached entitlements")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("entitlements.store.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of entitlement lookups answered without a query")
+                .register(registry);
+    }
+
+    // Вес записей Caffeine учитывает асинхронно, без cleanUp свежие записи не видны
+    private long footprintBytes() {
+        cache.cleanUp();
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private UserEntitlements load(Long userId) {
+        return cache.get(userId, id -> UserEntitlements.of(subscriptionRepository.findActiveEntitlements(id)));
+    }
+
+    // Подписка с наступившей датой окончания уже не даёт доступа, даже если её ещё не деактивировали
+    private static EntitlementStatus status(UserEntitlements entitlements, Long publicationId, LocalDateTime now) {
+        LocalDateTime endDate = entitlements.endDate(publicationId);
+        return EntitlementStatus.of(endDate != null && endDate.isAfter(now) ? endDate : null);
+    }
+}
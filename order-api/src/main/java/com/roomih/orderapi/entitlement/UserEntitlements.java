@@ -0,0 +1,97 @@
+package com.roomih.orderapi.entitlement;
+
+import com.roomih.orderapi.dto.Entitlement;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Активные подписки одного пользователя: отсортированные id публикаций и даты окончания
+ * в микросекундах, в двух параллельных массивах. Неизменяемый, изменения дают новую копию.
+ */
+final class UserEntitlements {
+
+    static final UserEntitlements EMPTY = new UserEntitlements(new long[0], new long[0]);
+
+    private final long[] publicationIds;
+    private final long[] endDates;
+
+    private UserEntitlements(long[] publicationIds, long[] endDates) {
+        this.publicationIds = publicationIds;
+        this.endDates = endDates;
+    }
+
+    static UserEntitlements of(List<Entitlement> entitlements) {
+        UserEntitlements result = EMPTY;
+        for (Entitlement entitlement : entitlements) {
+            // Дубли активных подписок на одну публикацию сводим к самой поздней дате
+            LocalDateTime known = result.endDate(entitlement.publicationId());
+            if (known == null || entitlement.endDate().isAfter(known)) {
+                result = result.with(entitlement.publicationId(), entitlement.endDate());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Дата окончания подписки на публикацию или null, если активной подписки нет.
+     */
+    LocalDateTime endDate(long publicationId) {
+        int i = Arrays.binarySearch(publicationIds, publicationId);
+        return i < 0 ? null : fromMicros(endDates[i]);
+    }
+
+    UserEntitlements with(long publicationId, LocalDateTime endDate) {
+        int i = Arrays.binarySearch(publicationIds, publicationId);
+        if (i >= 0) {
+            long[] dates = endDates.clone();
+            dates[i] = toMicros(endDate);
+            return new UserEntitlements(publicationIds, dates);
+        }
+        int at = -i - 1;
+        long[] ids = new long[publicationIds.length + 1];
+        long[] dates = new long[ids.length];
+        System.arraycopy(publicationIds, 0, ids, 0, at);
+        System.arraycopy(endDates, 0, dates, 0, at);
+        ids[at] = publicationId;
+        dates[at] = toMicros(endDate);
+        System.arraycopy(publicationIds, at, ids, at + 1, publicationIds.length - at);
+        System.arraycopy(endDates, at, dates, at + 1, endDates.length - at);
+        return new UserEntitlements(ids, dates);
+    }
+
+    UserEntitlements without(long publicationId) {
+        int i = Arrays.binarySearch(publicationIds, publicationId);
+        if (i < 0) {
+            return this;
+        }
+        long[] ids = new long[publicationIds.length - 1];
+        long[] dates = new long[ids.length];
+        System.arraycopy(publicationIds, 0, ids, 0, i);
+        System.arraycopy(endDates, 0, dates, 0, i);
+        System.arraycopy(publicationIds, i + 1, ids, i, ids.length - i);
+        System.arraycopy(endDates, i + 1, dates, i, dates.length - i);
+        return new UserEntitlements(ids, dates);
+    }
+
+    int size() {
+        return publicationIds.length;
+    }
+
+    // Объект и два массива long; заголовки по 16 байт
+    int footprintBytes() {
+        return 16 + 2 * (16 + 8 * publicationIds.length);
+    }
+
+    // Точность timestamp в PostgreSQL — микросекунды
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,28 @@
+package com.roomih.orderapi.event;
+
+import com.roomih.orderapi.model.Publication;
+
+/**
+ * Публикуется PublicationService после создания, изменения или удаления публикации.
+ * Для DELETED поле publication равно null.
+ */
+public record PublicationChangedEvent(Long publicationId, Type type, Publication publication) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static PublicationChangedEvent created(Publication publication) {
+        return new PublicationChangedEvent(publication.getId(), Type.CREATED, publication);
+    }
+
+    public static PublicationChangedEvent updated(Publication publication) {
+        return new PublicationChangedEvent(publication.getId(), Type.UPDATED, publication);
+    }
+
+    public static PublicationChangedEvent deleted(Long publicationId) {
+        return new PublicationChangedEvent(publicationId, Type.DELETED, null);
+    }
+}
@@ -0,0 +1,22 @@
+package com.roomih.orderapi.event;
+
+import com.roomih.orderapi.model.Subscription;
+
+import java.time.LocalDateTime;
+
+/**
+ * Публикуется SubscriptionService, когда меняется доступ пользователя к публикации.
+ * endDate равен null, если подписка больше не активна.
+ */
+public record SubscriptionChangedEvent(Long userId, Long publicationId, LocalDateTime endDate) {
+
+    public static SubscriptionChangedEvent activated(Subscription subscription) {
+        return new SubscriptionChangedEvent(subscription.getUser().getId(),
+                subscription.getPublication().getId(), subscription.getEndDate());
+    }
+
+    public static SubscriptionChangedEvent deactivated(Subscription subscription) {
+        return new SubscriptionChangedEvent(subscription.getUser().getId(),
+                subscription.getPublication().getId(), null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.roomih.orderapi.event;
+
+/**
+ * Публикуется, когда версия токенов пользователя изменилась или пользователь удалён.
+ * TokenVersionCache сбрасывает запись после коммита, чтобы не успеть перечитать старую версию.
+ */
+public record TokensRevokedEvent(Long userId) {
+}
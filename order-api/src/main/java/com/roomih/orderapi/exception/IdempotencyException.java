@@ -0,0 +1,17 @@
+package com.roomih.orderapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class IdempotencyException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public IdempotencyException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
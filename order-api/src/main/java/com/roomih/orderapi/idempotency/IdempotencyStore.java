@@ -0,0 +1,194 @@
+package com.roomih.orderapi.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.roomih.orderapi.exception.IdempotencyException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Ответы на запросы с заголовком Idempotency-Key. Повтор с тем же ключом получает сохранённый
+ * ответ без повторного выполнения, а пока первый запрос ещё выполняется — ждёт его результата.
+ * Ключи живут в пределах пользователя, просроченные удаляются в фоне.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    // Узел Caffeine, ключ и отпечаток запроса сверх тела ответа
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, Execution> executions;
+    private final Duration waitTimeout;
+    private final MeterRegistry registry;
+
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            MeterRegistry registry,
+                            @Value("${app.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${app.idempotency.max-bytes:16777216}") long maxBytes,
+                            @Value("${app.idempotency.wait-seconds:30}") long waitSeconds) {
+        this.objectMapper = objectMapper;
+        this.registry = registry;
+        this.waitTimeout = Duration.ofSeconds(waitSeconds);
+        this.executions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Execution execution) -> ENTRY_OVERHEAD_BYTES + execution.bodyLength())
+                // Без планировщика просроченные ключи удаляются только при обращениях к кэшу
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, executions, "idempotency");
+    }
+
+    /**
+     * Выполняет action один раз на (пользователь, ключ). Без ключа просто выполняет action.
+     * Ошибка первого выполнения отдаётся тем, кто его ждал, но не сохраняется: следующий повтор выполнит запрос заново.
+     * Если action выполнился, а ответ не сериализуется, ключ всё равно считается выполненным и повторы получают 500.
+     */
+    public ResponseEntity<?> execute(Long userId, String idempotencyKey, String operation, Object request,
+                                     Supplier<? extends ResponseEntity<?>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IdempotencyException(HttpStatus.BAD_REQUEST,
+                    "Заголовок " + HEADER + " должен быть непустым и не длиннее " + MAX_KEY_LENGTH + " символов");
+        }
+        Key key = new Key(userId, idempotencyKey);
+        Execution mine = new Execution(fingerprint(operation, request), new CompletableFuture<>());
+        Execution existing = executions.asMap().putIfAbsent(key, mine);
+        if (existing == null) {
+            return executeFirst(key, mine, operation, action);
+        }
+        if (!Arrays.equals(existing.fingerprint(), mine.fingerprint())) {
+            count(operation, "mismatch");
+            throw new IdempotencyException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Ключ " + HEADER + " уже использован для другого запроса");
+        }
+        StoredResponse stored = await(existing, operation);
+        count(operation, "replayed");
+        log.debug("Replaying {} for user {} and key {}", operation, userId, idempotencyKey);
+        return ResponseEntity.status(stored.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.body());
+    }
+
+    private ResponseEntity<?> executeFirst(Key key, Execution execution, String operation,
+                                           Supplier<? extends ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            executions.asMap().remove(key, execution);
+            execution.response().completeExceptionally(e);
+            throw e;
+        }
+        // Побочный эффект уже закоммичен: дальше ключ остаётся занятым, даже если ответ не сериализуется
+        StoredResponse stored = serialize(response, operation);
+        execution.response().complete(stored);
+        // Повторная запись пересчитывает вес уже с телом ответа и отсчитывает срок жизни от завершения
+        executions.asMap().replace(key, execution, execution);
+        count(operation, "executed");
+        if (stored.status() != response.getStatusCode()) {
+            return ResponseEntity.status(stored.status()).contentType(MediaType.APPLICATION_JSON).body(stored.body());
+        }
+        return response;
+    }
+
+    private StoredResponse serialize(ResponseEntity<?> response, String operation) {
+        try {
+            return new StoredResponse(response.getStatusCode(), objectMapper.writeValueAsBytes(response.getBody()));
+        } catch (JsonProcessingException e) {
+            log.error("Response of {} could not be stored, retries will get 500", operation, e);
+            count(operation, "unserializable");
+            try {
+                return new StoredResponse(HttpStatus.INTERNAL_SERVER_ERROR, objectMapper.writeValueAsBytes(Map.of(
+                        "status", HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                        "message", "Response not stored",
+                        "details", "Запрос выполнен, но его ответ не удалось сохранить. Не повторяйте запрос, "
+                                + "проверьте результат отдельно")));
+            } catch (JsonProcessingException impossible) {
+                throw new IllegalStateException(impossible);
+            }
+        }
+    }
+
+    private StoredResponse await(Execution execution, String operation) {
+        try {
+            return execution.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            count(operation, "failed");
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            count(operation, "timeout");
+            throw new IdempotencyException(HttpStatus.CONFLICT,
+                    "Запрос с этим " + HEADER + " ещё выполняется, повторите попытку позже");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyException(HttpStatus.CONFLICT,
+                    "Запрос с этим " + HEADER + " ещё выполняется, повторите попытку позже");
+        }
+    }
+
+    // Тот же ключ с другим телом или на другой операции — ошибка клиента, а не повтор
+    private byte[] fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return digest.digest(objectMapper.writeValueAsBytes(request));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void count(String operation, String outcome) {
+        registry.counter("idempotency.requests", "operation", operation, "outcome", outcome).increment();
+    }
+
+    private record Key(Long userId, String idempotencyKey) {
+    }
+
+    private record Execution(byte[] fingerprint, CompletableFuture<StoredResponse> response) {
+
+        int bodyLength() {
+            return response.isDone() && !response.isCompletedExceptionally() ? response.join().body().length : 0;
+        }
+    }
+
+    private record StoredResponse(HttpStatusCode status, byte[] body) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.roomih.orderapi.mapper;
+
+import com.roomih.orderapi.dto.SubscriptionDto;
+import com.roomih.orderapi.model.Subscription;
+
+public interface SubscriptionMapper {
+
+    SubscriptionDto toSubscriptionDto(Subscription subscription);
+}
@@ -0,0 +1,47 @@
+package com.roomih.orderapi.mapper;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import com.roomih.orderapi.dto.PublicationDto;
+import com.roomih.orderapi.dto.SubscriptionDto;
+import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.model.Subscription;
+
+/**
+ * Подписка должна быть загружена вместе с публикацией и пользователем
+ * (см. SubscriptionRepository), иначе каждое обращение — отдельный запрос.
+ */
+@Service
+@RequiredArgsConstructor
+public class SubscriptionMapperImpl implements SubscriptionMapper {
+
+    private final UserMapper userMapper;
+
+    @Override
+    public SubscriptionDto toSubscriptionDto(Subscription subscription) {
+        if (subscription == null) {
+            return null;
+        }
+        SubscriptionDto dto = new SubscriptionDto();
+        dto.setId(subscription.getId());
+        dto.setUser(userMapper.toUserDto(subscription.getUser()));
+        dto.setPublication(toPublicationDto(subscription.getPublication()));
+        dto.setStartDate(subscription.getStartDate().toLocalDate());
+        dto.setEndDate(subscription.getEndDate().toLocalDate());
+        dto.setSubscriptionPeriod(subscription.getSubscriptionPeriod());
+        dto.setTotalPrice(subscription.getTotalPrice());
+        dto.setActive(subscription.isActive());
+        return dto;
+    }
+
+    private PublicationDto toPublicationDto(Publication publication) {
+        PublicationDto dto = new PublicationDto();
+        dto.setId(publication.getId());
+        dto.setTitle(publication.getTitle());
+        dto.setDescription(publication.getDescription());
+        dto.setType(publication.getType());
+        dto.setPricePerMonth(publication.getPricePerMonth());
+        return dto;
+    }
+}
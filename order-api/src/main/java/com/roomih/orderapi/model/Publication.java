@@ -17,7 +17,8 @@ import java.util.Set;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Publication {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "publications_seq")
+    @SequenceGenerator(name = "publications_seq", sequenceName = "publications_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -28,7 +29,7 @@ public class Publication {
     @Column(name = "price_per_month", nullable = false)
     private Double pricePerMonth;
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Enumerated(EnumType.STRING)
@@ -38,6 +39,10 @@ public class Publication {
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    @Version
+    @JsonIgnore
+    private Long version;
+
     @JsonIgnore
     @OneToMany(mappedBy = "publication", fetch = FetchType.LAZY)
     private Set<Subscription> subscriptions = new HashSet<>();
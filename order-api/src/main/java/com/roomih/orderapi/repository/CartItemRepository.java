@@ -1,10 +1,26 @@
 package com.roomih.orderapi.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.roomih.orderapi.model.CartItem;
 
+import java.util.Collection;
+
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
-} 
\ No newline at end of file
+
+    String USER_CART = "i.cart.id in (select c.id from Cart c where c.user.id = :userId)";
+
+    @Modifying
+    @Query("delete from CartItem i where " + USER_CART)
+    int deleteByCartUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("delete from CartItem i where " + USER_CART + " and i.publication.id in :publicationIds")
+    int deleteByCartUserIdAndPublicationIdIn(@Param("userId") Long userId,
+                                             @Param("publicationIds") Collection<Long> publicationIds);
+}
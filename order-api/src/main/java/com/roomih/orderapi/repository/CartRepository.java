@@ -4,11 +4,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import com.roomih.orderapi.model.Cart;
-import com.roomih.orderapi.model.User;
 
 import java.util.Optional;
 
 @Repository
-public interface CartRepository extends JpaRepository<Cart, Long> {
-    Optional<Cart> findByUser(User user);
-} 
\ No newline at end of file
+public interface CartRepository extends JpaRepository<Cart, Long>, CartRepositoryCustom {
+    Optional<Cart> findByUserId(Long userId);
+}
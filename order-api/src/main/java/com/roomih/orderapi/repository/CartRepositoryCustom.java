@@ -0,0 +1,13 @@
+package com.roomih.orderapi.repository;
+
+import com.roomih.orderapi.model.Cart;
+
+import java.util.Optional;
+
+public interface CartRepositoryCustom {
+
+    /**
+     * Корзина пользователя, версия которой поднимется при коммите, даже если менялись только её элементы.
+     */
+    Optional<Cart> findForUpdateByUserId(Long userId);
+}
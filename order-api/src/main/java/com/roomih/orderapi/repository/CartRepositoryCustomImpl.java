@@ -0,0 +1,27 @@
+package com.roomih.orderapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import com.roomih.orderapi.model.Cart;
+
+import java.util.Optional;
+
+class CartRepositoryCustomImpl implements CartRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // @Lock(OPTIMISTIC_FORCE_INCREMENT) на JPQL-запросе Hibernate 6 молча игнорирует,
+    // поэтому блокировка ставится через EntityManager.lock уже на загруженную корзину
+    @Override
+    public Optional<Cart> findForUpdateByUserId(Long userId) {
+        Optional<Cart> cart = entityManager.createQuery("select c from Cart c where c.user.id = :userId", Cart.class)
+                .setParameter("userId", userId)
+                .getResultStream()
+                .findFirst();
+        cart.ifPresent(found -> entityManager.lock(found, LockModeType.OPTIMISTIC_FORCE_INCREMENT));
+        return cart;
+    }
+}
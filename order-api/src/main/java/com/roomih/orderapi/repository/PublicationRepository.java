@@ -1,17 +1,118 @@
 package com.roomih.orderapi.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.roomih.orderapi.dto.PublicationContent;
+import com.roomih.orderapi.dto.PublicationDocument;
+import com.roomih.orderapi.dto.PublicationSummary;
+import com.roomih.orderapi.dto.Suggestion;
 import com.roomih.orderapi.model.Publication;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PublicationRepository extends JpaRepository<Publication, Long> {
     Page<Publication> findByTitleContainingIgnoreCase(String title, Pageable pageable);
     List<Publication> findByTitleContainingIgnoreCase(String title);
     boolean existsByTitle(String title);
+
+    // Списки каталога не выбирают колонку content
+    String SELECT_SUMMARY = "select new com.roomih.orderapi.dto.PublicationSummary(p.id, p.title, p.description, p.type, p.pricePerMonth, p.createdAt) ";
+    String TITLE_FILTER = "lower(p.title) like lower(concat('%', :title, '%'))";
+
+    @Query(value = SELECT_SUMMARY + "from Publication p where " + TITLE_FILTER,
+            countQuery = "select count(p) from Publication p where " + TITLE_FILTER)
+    Page<PublicationSummary> findSummariesByTitleContaining(@Param("title") String title, Pageable pageable);
+
+    @Query("select count(p) from Publication p where " + TITLE_FILTER)
+    long countByTitleContaining(@Param("title") String title);
+
+    // Keyset-выборки для курсорной выдачи: без OFFSET и без count(*).
+    // Сравнение кортежей (created_at, id) < (?, ?) PostgreSQL ведёт по индексу (created_at, id)
+    // с позиции курсора; раскрытое "a < x or (a = x and id < y)" так не умеет.
+    // "Before"-варианты идут в обратном порядке, сервис разворачивает результат.
+    // Варианты без title — для выдачи без поиска, чтобы в запросе не было LIKE по всем строкам.
+    String NEWEST_AFTER = "(p.createdAt, p.id) < (:createdAt, :id)";
+    String NEWEST_BEFORE = "(p.createdAt, p.id) > (:createdAt, :id)";
+    String NEWEST_ORDER = " order by p.createdAt desc, p.id desc";
+    String NEWEST_REVERSED = " order by p.createdAt asc, p.id asc";
+    String TITLE_AFTER = "(p.title, p.id) > (:after, :id)";
+    String TITLE_BEFORE = "(p.title, p.id) < (:before, :id)";
+    String TITLE_ORDER = " order by p.title asc, p.id asc";
+    String TITLE_REVERSED = " order by p.title desc, p.id desc";
+
+    @Query(SELECT_SUMMARY + "from Publication p" + NEWEST_ORDER)
+    List<PublicationSummary> findNewestSummaries(Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p where " + TITLE_FILTER + NEWEST_ORDER)
+    List<PublicationSummary> findNewestSummaries(@Param("title") String title, Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p where " + NEWEST_AFTER + NEWEST_ORDER)
+    List<PublicationSummary> findNewestSummariesAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                      Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p where " + TITLE_FILTER + " and " + NEWEST_AFTER + NEWEST_ORDER)
+    List<PublicationSummary> findNewestSummariesAfter(@Param("title") String title, @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p where " + NEWEST_BEFORE + NEWEST_REVERSED)
+    List<PublicationSummary> findNewestSummariesBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                       Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p where " + TITLE_FILTER + " and " + NEWEST_BEFORE + NEWEST_REVERSED)
+    List<PublicationSummary> findNewestSummariesBefore(@Param("title") String title, @Param("createdAt") LocalDateTime createdAt,
+                                                       @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p" + TITLE_ORDER)
+    List<PublicationSummary> findSummariesOrderedByTitle(Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p where " + TITLE_FILTER + TITLE_ORDER)
+    List<PublicationSummary> findSummariesOrderedByTitle(@Param("title") String title, Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p where " + TITLE_AFTER + TITLE_ORDER)
+    List<PublicationSummary> findSummariesOrderedByTitleAfter(@Param("after") String after, @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p where " + TITLE_FILTER + " and " + TITLE_AFTER + TITLE_ORDER)
+    List<PublicationSummary> findSummariesOrderedByTitleAfter(@Param("title") String title, @Param("after") String after,
+                                                              @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p where " + TITLE_BEFORE + TITLE_REVERSED)
+    List<PublicationSummary> findSummariesOrderedByTitleBefore(@Param("before") String before, @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p where " + TITLE_FILTER + " and " + TITLE_BEFORE + TITLE_REVERSED)
+    List<PublicationSummary> findSummariesOrderedByTitleBefore(@Param("title") String title, @Param("before") String before,
+                                                               @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_SUMMARY + "from Publication p order by p.id")
+    List<PublicationSummary> findAllSummariesOrderedById();
+
+    // Для перестройки поискового индекса: строки читаются курсором порциями, а не все сразу.
+    // Вызывать внутри транзакции и закрывать поток.
+    String SELECT_DOCUMENT = "select new com.roomih.orderapi.dto.PublicationDocument(p.id, p.title, p.description, p.type, "
+            + "p.pricePerMonth, p.createdAt, p.content) ";
+
+    @Query(SELECT_DOCUMENT + "from Publication p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<PublicationDocument> streamAllDocuments();
+
+    @Query("select new com.roomih.orderapi.dto.Suggestion(p.id, p.title) from Publication p")
+    List<Suggestion> findAllTitles();
+
+    @Query("select new com.roomih.orderapi.dto.PublicationContent(p.id, p.content) from Publication p where p.id = :id")
+    Optional<PublicationContent> findContentById(@Param("id") Long id);
+
+    @Query(SELECT_DOCUMENT + "from Publication p where p.id = :id")
+    Optional<PublicationDocument> findDocumentById(@Param("id") Long id);
 }
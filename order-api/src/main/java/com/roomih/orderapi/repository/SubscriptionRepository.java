@@ -1,19 +1,41 @@
 package com.roomih.orderapi.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.dto.Entitlement;
+import com.roomih.orderapi.dto.PublicationPopularity;
 import com.roomih.orderapi.model.Subscription;
-import com.roomih.orderapi.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
-    List<Subscription> findByUserOrderByStartDateDesc(User user);
-    List<Subscription> findByUserAndActiveTrue(User user);
-    Optional<Subscription> findByIdAndUser(Long id, User user);
-    Optional<Subscription> findByUserAndPublicationAndActiveTrue(User user, Publication publication);
+    // Списки и изменение подписки отдаются наружу вместе с публикацией и пользователем:
+    // грузим их тем же запросом, а не отдельным select на каждую подписку.
+    // user.cart — обратная сторона OneToOne, Hibernate всегда дочитывает её сам, поэтому тоже в графе
+    @EntityGraph(attributePaths = {"publication", "user", "user.cart"})
+    List<Subscription> findByUserIdOrderByStartDateDesc(Long userId);
+
+    @EntityGraph(attributePaths = {"publication", "user", "user.cart"})
+    List<Subscription> findByUserIdAndActiveTrue(Long userId);
+
+    @EntityGraph(attributePaths = {"publication", "user", "user.cart"})
+    Optional<Subscription> findByIdAndUserId(Long id, Long userId);
+
+    List<Subscription> findByUserIdAndActiveTrueAndPublicationIdIn(Long userId, Collection<Long> publicationIds);
+
+    // Идёт по idx_subscriptions_user_active, публикации не читаются
+    @Query("select new com.roomih.orderapi.dto.Entitlement(s.publication.id, s.endDate) "
+            + "from Subscription s where s.user.id = :userId and s.active = true")
+    List<Entitlement> findActiveEntitlements(@Param("userId") Long userId);
+
+    @Query("select new com.roomih.orderapi.dto.PublicationPopularity(s.publication.id, count(s)) "
+            + "from Subscription s where s.active = true group by s.publication.id")
+    List<PublicationPopularity> countActiveByPublication();
 }
@@ -10,15 +10,18 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import com.roomih.orderapi.dto.AuthResponse;
 import com.roomih.orderapi.dto.LoginRequest;
 import com.roomih.orderapi.dto.LoginResponse;
+import com.roomih.orderapi.dto.RefreshTokenRequest;
 import com.roomih.orderapi.dto.SignUpRequest;
 import com.roomih.orderapi.exception.DuplicatedUserInfoException;
 import com.roomih.orderapi.model.User;
+import com.roomih.orderapi.security.CustomUserDetails;
+import com.roomih.orderapi.security.PasswordHashingExecutor;
+import com.roomih.orderapi.security.RefreshTokenService;
 import com.roomih.orderapi.security.TokenProvider;
 import com.roomih.orderapi.service.UserService;
 
@@ -27,6 +30,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RequiredArgsConstructor
 @RestController
@@ -38,73 +42,84 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final TokenProvider tokenProvider;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RefreshTokenService refreshTokenService;
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
 
+    // Проверка пароля идёт в PasswordHashingExecutor, поток Tomcat освобождается до её окончания
     @Operation(
         summary = "Аутентификация пользователя",
         responses = {
             @ApiResponse(responseCode = "200", description = "Успешная аутентификация"),
-            @ApiResponse(responseCode = "401", description = "Неверные учетные данные")
+            @ApiResponse(responseCode = "401", description = "Неверные учетные данные"),
+            @ApiResponse(responseCode = "503", description = "Очередь проверки паролей заполнена, см. Retry-After")
         }
     )
     @PostMapping("/authenticate")
-    @Transactional
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest loginRequest) {
         log.info("Authentication attempt for user: {}", loginRequest.getEmail());
-        
-        try {
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                    loginRequest.getEmail(),
-                    loginRequest.getPassword()
-                )
-            );
 
-            String token = tokenProvider.generate(authentication);
-            log.info("Authentication successful for user: {}", loginRequest.getEmail());
+        return passwordHashingExecutor.submit(() -> {
+            try {
+                Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                        loginRequest.getEmail(),
+                        loginRequest.getPassword()
+                    )
+                );
 
-            User user = userService.validateAndGetUserByEmail(loginRequest.getEmail());
-            return ResponseEntity.ok(new LoginResponse(token, user.getEmail(), user.getRole()));
-        } catch (Exception e) {
-            log.error("Authentication error: ", e);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(Map.of("message", "Неверное имя пользователя или пароль"));
-        }
+                String token = tokenProvider.generate(authentication);
+                log.info("Authentication successful for user: {}", loginRequest.getEmail());
+
+                User user = ((CustomUserDetails) authentication.getPrincipal()).getUser();
+                return ResponseEntity.ok(new LoginResponse(token, user.getEmail(), user.getRole(),
+                    refreshTokenService.issue(user)));
+            } catch (Exception e) {
+                log.error("Authentication error: ", e);
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", "Неверное имя пользователя или пароль"));
+            }
+        });
     }
 
     @Operation(
         summary = "Регистрация нового пользователя",
         responses = {
             @ApiResponse(responseCode = "201", description = "Пользователь успешно зарегистрирован"),
-            @ApiResponse(responseCode = "400", description = "Некорректные данные")
+            @ApiResponse(responseCode = "400", description = "Некорректные данные"),
+            @ApiResponse(responseCode = "503", description = "Очередь проверки паролей заполнена, см. Retry-After")
         }
     )
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping("/signup")
-    @Transactional
-    public AuthResponse signUp(@Valid @RequestBody SignUpRequest signUpRequest) {
+    public CompletableFuture<AuthResponse> signUp(@Valid @RequestBody SignUpRequest signUpRequest) {
         if (userService.hasUserWithEmail(signUpRequest.getEmail())) {
             throw new DuplicatedUserInfoException(String.format("Email %s already been used", signUpRequest.getEmail()));
         }
 
-        User user = new User();
-        user.setFirstName(signUpRequest.getFirstName());
-        user.setLastName(signUpRequest.getLastName());
-        user.setPassword(passwordEncoder.encode(signUpRequest.getPassword()));
-        user.setEmail(signUpRequest.getEmail());
-        user.setRole("USER");
-        userService.saveUser(user);
-
-        String token = authenticateAndGetToken(signUpRequest.getEmail(), signUpRequest.getPassword());
-        return new AuthResponse(token);
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(signUpRequest.getPassword()))
+            .thenApply(passwordHash -> {
+                User user = new User();
+                user.setFirstName(signUpRequest.getFirstName());
+                user.setLastName(signUpRequest.getLastName());
+                user.setPassword(passwordHash);
+                user.setEmail(signUpRequest.getEmail());
+                user.setRole("USER");
+                // Пароль только что захеширован, повторно проверять его через AuthenticationManager незачем
+                User saved = userService.saveUser(user);
+                return new AuthResponse(tokenProvider.generate(saved), refreshTokenService.issue(saved));
+            });
     }
 
-    private String authenticateAndGetToken(String email, String password) {
-        log.debug("Attempting to authenticate user: {}", email);
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(email, password)
-        );
-        log.debug("Authentication successful. Generating token for user: {}", email);
-        return tokenProvider.generate(authentication);
+    @Operation(
+        summary = "Обновление access-токена по refresh-токену",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Новая пара токенов, старый refresh-токен больше не действует"),
+            @ApiResponse(responseCode = "401", description = "Refresh-токен недействителен, истёк или уже использован")
+        }
+    )
+    @PostMapping("/refresh")
+    public AuthResponse refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return refreshTokenService.rotate(request.getRefreshToken());
     }
 }
@@ -8,7 +8,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import com.roomih.orderapi.model.Cart;
-import com.roomih.orderapi.security.CustomUserDetails;
+import com.roomih.orderapi.security.AuthenticatedUser;
 import com.roomih.orderapi.service.CartService;
 
 @RestController
@@ -21,14 +21,14 @@ public class CartController {
 
     @GetMapping
     @Operation(summary = "Получить корзину текущего пользователя")
-    public ResponseEntity<Cart> getCart(@AuthenticationPrincipal CustomUserDetails currentUser) {
-        return ResponseEntity.ok(cartService.getCartByUser(currentUser.getUser()));
+    public ResponseEntity<Cart> getCart(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(cartService.getCartByUserId(currentUser.id()));
     }
 
     @PostMapping("/clear")
     @Operation(summary = "Очистить корзину")
-    public ResponseEntity<Void> clearCart(@AuthenticationPrincipal CustomUserDetails currentUser) {
-        cartService.clearCart(currentUser.getUser());
+    public ResponseEntity<Void> clearCart(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        cartService.clearCart(currentUser.id());
         return ResponseEntity.ok().build();
     }
 } 
\ No newline at end of file
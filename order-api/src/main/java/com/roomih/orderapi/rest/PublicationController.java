@@ -5,34 +5,114 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import com.roomih.orderapi.dto.CatalogFilter;
+import com.roomih.orderapi.dto.CatalogOrder;
+import com.roomih.orderapi.dto.CursorPage;
+import com.roomih.orderapi.dto.PublicationContent;
+import com.roomih.orderapi.dto.PublicationDocument;
+import com.roomih.orderapi.dto.PublicationSummary;
+import com.roomih.orderapi.dto.SearchHit;
+import com.roomih.orderapi.dto.Suggestion;
 import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.model.PublicationType;
+import com.roomih.orderapi.rest.RenderedCatalogCache.RenderedPage;
+import com.roomih.orderapi.search.TitleSuggester;
 import com.roomih.orderapi.service.PublicationService;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/publications")
 @RequiredArgsConstructor
 public class PublicationController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final Duration SUGGEST_MAX_AGE = Duration.ofSeconds(30);
+
     private final PublicationService publicationService;
+    private final RenderedCatalogCache renderedCatalogCache;
+    private final TitleSuggester titleSuggester;
 
     @GetMapping
-    @Operation(summary = "Получить список публикаций")
-    public ResponseEntity<Page<Publication>> getPublications(
+    @Operation(summary = "Получить список публикаций с фильтрами и счётчиками по типу и цене")
+    public ResponseEntity<byte[]> getPublications(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(required = false) String searchQuery) {
-        return ResponseEntity.ok(publicationService.findPublications(searchQuery, PageRequest.of(page, size)));
+            @RequestParam(required = false) String searchQuery,
+            @RequestParam(required = false) Set<PublicationType> types,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdAfter,
+            WebRequest webRequest) {
+        CatalogFilter filter = new CatalogFilter(searchQuery, types, minPrice, maxPrice, createdAfter);
+        PageRequest pageRequest = pageRequest(page, size);
+        String key = filter.cacheKey() + "|" + pageRequest.getPageNumber() + "|" + pageRequest.getPageSize();
+        RenderedPage rendered = renderedCatalogCache.get(key,
+                () -> publicationService.filterCatalog(filter, pageRequest));
+
+        if (webRequest.checkNotModified(rendered.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(rendered.etag())
+                .body(rendered.body());
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Получить публикации по курсору (без OFFSET и подсчёта)")
+    public ResponseEntity<CursorPage<PublicationSummary>> scrollPublications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NEWEST") CatalogOrder order,
+            @RequestParam(required = false) String searchQuery,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        return ResponseEntity.ok(publicationService.scrollPublications(searchQuery, order, cursor, pageSize, includeTotal));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Полнотекстовый поиск по названию, описанию и содержанию")
+    public ResponseEntity<Page<SearchHit>> searchPublications(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(publicationService.searchPublications(q, pageRequest(page, size)));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Подсказки по началу названия, самые популярные первыми")
+    public ResponseEntity<List<Suggestion>> suggestPublications(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "" + TitleSuggester.MAX_SUGGESTIONS) int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(SUGGEST_MAX_AGE).cachePublic())
+                .body(titleSuggester.suggest(prefix, limit));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить публикацию по ID")
-    public ResponseEntity<Publication> getPublication(@PathVariable Long id) {
+    public ResponseEntity<PublicationDocument> getPublication(@PathVariable Long id) {
         return ResponseEntity.ok(publicationService.getPublicationById(id));
     }
 
+    @GetMapping("/{id}/content")
+    @Operation(summary = "Получить содержание публикации")
+    public ResponseEntity<PublicationContent> getPublicationContent(@PathVariable Long id) {
+        return ResponseEntity.ok(publicationService.getPublicationContent(id));
+    }
+
     @PostMapping
     @Operation(summary = "Создать новую публикацию")
     @SecurityRequirement(name = "bearerAuth")
@@ -56,4 +136,9 @@ public class PublicationController {
         publicationService.deletePublication(id);
         return ResponseEntity.ok().build();
     }
+
+    // Размер страницы приходит от анонимного клиента: без ограничения он сам задаёт размер выделяемых списков
+    private static PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
 }
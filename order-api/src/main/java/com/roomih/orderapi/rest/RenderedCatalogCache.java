@@ -0,0 +1,77 @@
+package com.roomih.orderapi.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import com.roomih.orderapi.event.PublicationChangedEvent;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Готовые JSON-ответы страниц каталога вместе с ETag. Тело сериализуется один раз
+ * и отдаётся как есть до следующего изменения публикаций.
+ */
+@Slf4j
+@Component
+public class RenderedCatalogCache implements MeterBinder {
+
+    public record RenderedPage(byte[] body, String etag) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, RenderedPage> cache;
+
+    // Номер поколения входит в ключ: страница, дорендеренная после инвалидации, уже не будет прочитана
+    private final AtomicLong generation = new AtomicLong();
+
+    public RenderedCatalogCache(ObjectMapper objectMapper,
+                                @Value("${app.catalog-cache.rendered-pages.max-size:500}") long maxSize,
+                                @Value("${app.catalog-cache.rendered-pages.ttl-seconds:600}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public RenderedPage get(String key, Supplier<?> pageLoader) {
+        return cache.get(generation.get() + ":" + key, k -> render(pageLoader.get()));
+    }
+
+    // AFTER_COMPLETION — после afterCommit-инвалидации кэшей PublicationService
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onPublicationChanged(PublicationChangedEvent event) {
+        log.debug("Publication {} {}, dropping rendered catalog pages", event.publicationId(), event.type());
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "renderedCatalogPages");
+    }
+
+    private RenderedPage render(Object page) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(page);
+            return new RenderedPage(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -6,14 +6,17 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import com.roomih.orderapi.dto.EntitlementCheckRequest;
+import com.roomih.orderapi.dto.EntitlementStatus;
+import com.roomih.orderapi.dto.SubscriptionDto;
 import com.roomih.orderapi.dto.SubscriptionRequest;
 import com.roomih.orderapi.dto.UpdatePeriodRequest;
+import com.roomih.orderapi.idempotency.IdempotencyStore;
+import com.roomih.orderapi.mapper.SubscriptionMapper;
 import com.roomih.orderapi.model.Subscription;
-import com.roomih.orderapi.model.User;
-import com.roomih.orderapi.security.CustomUserDetails;
+import com.roomih.orderapi.security.AuthenticatedUser;
 import com.roomih.orderapi.service.SubscriptionService;
 
 import java.util.List;
@@ -26,82 +29,69 @@ import java.util.Map;
 public class SubscriptionController {
 
     private final SubscriptionService subscriptionService;
+    private final SubscriptionMapper subscriptionMapper;
+    private final IdempotencyStore idempotencyStore;
 
     @GetMapping("/my")
     @Operation(summary = "Получить подписку текущего пользователя")
-    @Transactional(readOnly = true)
-    public ResponseEntity<List<Subscription>> getUserSubscriptions(@AuthenticationPrincipal CustomUserDetails currentUser) {
-        List<Subscription> subscriptions = subscriptionService.getUserSubscriptions(currentUser.getUser());
-        // Инициализируем связанные сущности
-        subscriptions.forEach(subscription -> {
-            subscription.getPublication().getTitle();
-            subscription.getUser().getEmail();
-        });
-        return ResponseEntity.ok(subscriptions);
+    public ResponseEntity<List<SubscriptionDto>> getUserSubscriptions(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(subscriptionService.getUserSubscriptions(currentUser.id()).stream()
+                .map(subscriptionMapper::toSubscriptionDto)
+                .toList());
     }
 
+    // Повтор с тем же Idempotency-Key получает сохранённый ответ, см. IdempotencyStore
     @PostMapping
     @Operation(summary = "Создать новую подписку")
-    @Transactional
-    public ResponseEntity<Subscription> createSubscription(
-            @AuthenticationPrincipal CustomUserDetails currentUser,
+    public ResponseEntity<?> createSubscription(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody SubscriptionRequest request) {
-        User user = currentUser.getUser();
-        Subscription subscription = subscriptionService.createSubscription(user, request);
-        return ResponseEntity.ok(subscription);
+        return idempotencyStore.execute(currentUser.id(), idempotencyKey, "subscription.create", request,
+                () -> ResponseEntity.ok(subscriptionService.createSubscription(currentUser.id(), request)));
     }
 
     @PostMapping("/create-from-cart")
     @Operation(summary = "Создать подписки из корзины")
-    @Transactional
-    public ResponseEntity<List<Subscription>> createSubscriptionsFromCart(
-            @AuthenticationPrincipal CustomUserDetails currentUser,
+    public ResponseEntity<?> createSubscriptionsFromCart(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             @RequestBody CreateSubscriptionsRequest request) {
-        User user = currentUser.getUser();
-        List<Subscription> subscriptions = subscriptionService.createSubscriptionsFromCartRequests(user, request.getSubscriptions());
-        return ResponseEntity.ok(subscriptions);
+        return idempotencyStore.execute(currentUser.id(), idempotencyKey, "subscription.checkout", request,
+                () -> ResponseEntity.ok(subscriptionService.createSubscriptionsFromCartRequests(
+                        currentUser.id(), request.getSubscriptions())));
     }
 
     @PutMapping("/{id}/period")
     @Operation(summary = "Изменить период подписки")
-    @Transactional
-    public ResponseEntity<Subscription> updateSubscriptionPeriod(
-            @AuthenticationPrincipal CustomUserDetails currentUser,
+    public ResponseEntity<SubscriptionDto> updateSubscriptionPeriod(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long id,
             @Valid @RequestBody UpdatePeriodRequest request) {
-        User user = currentUser.getUser();
-        Subscription subscription = subscriptionService.updateSubscriptionPeriod(user, id, request.getSubscriptionPeriod());
-        // Инициализируем связанные сущности перед отправкой
-        subscription.getPublication().getTitle();
-        subscription.getUser().getEmail();
-        return ResponseEntity.ok(subscription);
+        Subscription subscription = subscriptionService.updateSubscriptionPeriod(currentUser.id(), id, request.getSubscriptionPeriod());
+        return ResponseEntity.ok(subscriptionMapper.toSubscriptionDto(subscription));
     }
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Отменить подписку")
-    @Transactional
     public ResponseEntity<Void> cancelSubscription(
-            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long id) {
-        subscriptionService.cancelSubscription(currentUser.getUser(), id);
+        subscriptionService.cancelSubscription(currentUser.id(), id);
         return ResponseEntity.ok().build();
     }
 
     @GetMapping("/check/{publicationId}")
     @Operation(summary = "Проверить наличие активной подписки на публикацию")
-    @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> checkActiveSubscription(
-            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long publicationId) {
-        Subscription activeSubscription = subscriptionService.findActiveSubscriptionForPublication(
-            currentUser.getUser(), 
-            publicationId
-        );
+        EntitlementStatus status = subscriptionService.checkEntitlement(currentUser.id(), publicationId);
         
-        if (activeSubscription != null) {
+        if (status.active()) {
             return ResponseEntity.ok(Map.of(
                 "hasActiveSubscription", true,
-                "endDate", activeSubscription.getEndDate()
+                "endDate", status.endDate()
             ));
         }
         
@@ -109,6 +99,14 @@ public class SubscriptionController {
             "hasActiveSubscription", false
         ));
     }
+
+    @PostMapping("/check")
+    @Operation(summary = "Проверить активные подписки сразу на несколько публикаций")
+    public ResponseEntity<Map<Long, EntitlementStatus>> checkActiveSubscriptions(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @Valid @RequestBody EntitlementCheckRequest request) {
+        return ResponseEntity.ok(subscriptionService.checkEntitlements(currentUser.id(), request.getPublicationIds()));
+    }
 }
 
 class CreateSubscriptionsRequest {
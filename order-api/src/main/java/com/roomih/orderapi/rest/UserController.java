@@ -12,11 +12,12 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import com.roomih.orderapi.dto.SubscriptionDto;
 import com.roomih.orderapi.dto.UserDto;
+import com.roomih.orderapi.mapper.SubscriptionMapper;
 import com.roomih.orderapi.mapper.UserMapper;
-import com.roomih.orderapi.model.Subscription;
 import com.roomih.orderapi.model.User;
-import com.roomih.orderapi.security.CustomUserDetails;
+import com.roomih.orderapi.security.AuthenticatedUser;
 import com.roomih.orderapi.service.SubscriptionService;
 import com.roomih.orderapi.service.UserService;
 
@@ -35,6 +36,7 @@ public class UserController {
     private final UserService userService;
     private final UserMapper userMapper;
     private final SubscriptionService subscriptionService;
+    private final SubscriptionMapper subscriptionMapper;
 
     @Operation(
         summary = "Получить информацию о текущем пользователе",
@@ -45,9 +47,9 @@ public class UserController {
         security = @SecurityRequirement(name = "bearerAuth")
     )
     @GetMapping("/me")
-    public UserDto getCurrentUser(@AuthenticationPrincipal CustomUserDetails currentUser) {
-        log.info("Getting current user info for user: {}", currentUser.getEmail());
-        User user = userService.validateAndGetUserByEmail(currentUser.getEmail());
+    public UserDto getCurrentUser(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        log.info("Getting current user info for user: {}", currentUser.email());
+        User user = userService.getUserById(currentUser.id());
         return userMapper.toUserDto(user);
     }
 
@@ -76,11 +78,11 @@ public class UserController {
     @Operation(security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
     @GetMapping("/profile")
     @Transactional(readOnly = true)
-    public ResponseEntity<?> getUserProfile(@AuthenticationPrincipal CustomUserDetails currentUser) {
+    public ResponseEntity<?> getUserProfile(@AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            log.info("Fetching profile for user: {}", currentUser.getEmail());
+            log.info("Fetching profile for user: {}", currentUser.email());
             
-            User user = userService.validateAndGetUserByEmail(currentUser.getEmail());
+            User user = userService.getUserById(currentUser.id());
             if (user == null) {
                 return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
@@ -90,7 +92,7 @@ public class UserController {
             UserDto userDto = userMapper.toUserDto(user);
             return ResponseEntity.ok(userDto);
         } catch (Exception e) {
-            log.error("Error fetching profile for user: {}", currentUser.getEmail(), e);
+            log.error("Error fetching profile for user: {}", currentUser.email(), e);
             return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
                 .body(new ErrorResponse("Ошибка", "Не удалось загрузить профиль"));
@@ -101,13 +103,13 @@ public class UserController {
     @PutMapping("/profile")
     @Transactional
     public ResponseEntity<?> updateUserProfile(
-        @AuthenticationPrincipal CustomUserDetails currentUser,
+        @AuthenticationPrincipal AuthenticatedUser currentUser,
         @RequestBody UserDto userDto
     ) {
         try {
-            log.info("Updating profile for user: {}", currentUser.getEmail());
+            log.info("Updating profile for user: {}", currentUser.email());
             
-            User user = userService.validateAndGetUserByEmail(currentUser.getEmail());
+            User user = userService.getUserById(currentUser.id());
             if (user == null) {
                 return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
@@ -141,10 +143,10 @@ public class UserController {
             }
 
             User updatedUser = userService.saveUser(user);
-            log.info("Successfully updated profile for user: {}", currentUser.getEmail());
+            log.info("Successfully updated profile for user: {}", currentUser.email());
             return ResponseEntity.ok(userMapper.toUserDto(updatedUser));
         } catch (Exception e) {
-            log.error("Error updating profile for user: {}", currentUser.getEmail(), e);
+            log.error("Error updating profile for user: {}", currentUser.email(), e);
             return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
                 .body(new ErrorResponse("Ошибка", "Не удалось обновить профиль"));
@@ -154,13 +156,13 @@ public class UserController {
     @Operation(security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
     @PutMapping("/change-password")
     public ResponseEntity<?> changeUserPassword(
-        @AuthenticationPrincipal CustomUserDetails currentUser,
+        @AuthenticationPrincipal AuthenticatedUser currentUser,
         @RequestBody ChangePasswordRequest changePasswordRequest
     ) {
         try {
-            log.info("Changing password for user: {}", currentUser.getEmail());
+            log.info("Changing password for user: {}", currentUser.email());
             
-            User user = userService.validateAndGetUserByEmail(currentUser.getEmail());
+            User user = userService.getUserById(currentUser.id());
             
             if (!userService.checkPassword(user, changePasswordRequest.getCurrentPassword())) {
                 return ResponseEntity
@@ -176,10 +178,10 @@ public class UserController {
             
             userService.changeUserPassword(user, changePasswordRequest.getNewPassword());
             
-            log.info("Password changed successfully for user: {}", currentUser.getEmail());
+            log.info("Password changed successfully for user: {}", currentUser.email());
             return ResponseEntity.ok(new SuccessResponse("Пароль успешно изменен"));
         } catch (RuntimeException e) {
-            log.error("Error changing password for user: {}", currentUser.getEmail(), e);
+            log.error("Error changing password for user: {}", currentUser.email(), e);
             return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
                 .body(new ErrorResponse("Не удалось изменить пароль", e.getMessage()));
@@ -188,13 +190,14 @@ public class UserController {
 
     @Operation(security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
     @GetMapping("/subscriptions")
-    public ResponseEntity<List<Subscription>> getUserSubscriptions(@AuthenticationPrincipal CustomUserDetails currentUser) {
+    public ResponseEntity<List<SubscriptionDto>> getUserSubscriptions(@AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            User user = userService.validateAndGetUserByEmail(currentUser.getEmail());
-            List<Subscription> subscriptions = subscriptionService.getUserSubscriptions(user);
+            List<SubscriptionDto> subscriptions = subscriptionService.getUserSubscriptions(currentUser.id()).stream()
+                    .map(subscriptionMapper::toSubscriptionDto)
+                    .collect(Collectors.toList());
             return ResponseEntity.ok(subscriptions);
         } catch (RuntimeException e) {
-            log.error("Error fetching subscriptions for user: {}", currentUser.getEmail(), e);
+            log.error("Error fetching subscriptions for user: {}", currentUser.email(), e);
             return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
                 .body(null);
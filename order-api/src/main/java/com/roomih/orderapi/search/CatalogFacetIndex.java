@@ -0,0 +1,434 @@
+package com.roomih.orderapi.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.roomih.orderapi.dto.CatalogFacets;
+import com.roomih.orderapi.dto.CatalogFilter;
+import com.roomih.orderapi.dto.FacetedPage;
+import com.roomih.orderapi.dto.PublicationSummary;
+import com.roomih.orderapi.event.PublicationChangedEvent;
+import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.model.PublicationType;
+import com.roomih.orderapi.repository.PublicationRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Колоночный индекс каталога в памяти процесса для фильтров по типу, цене и дате создания.
+ * Тип и ценовой диапазон хранятся битовыми масками, так что счётчики фильтров — это пересечения
+ * масок, а не GROUP BY на каждый запрос. Строится из базы при старте и дальше обновляется
+ * по PublicationChangedEvent после коммита.
+ */
+@Slf4j
+@Component
+public class CatalogFacetIndex implements MeterBinder {
+
+    private static final PublicationType[] TYPES = PublicationType.values();
+
+    private final PublicationRepository publicationRepository;
+    // Границы ценовых диапазонов по возрастанию: [0, b0), [b0, b1), ..., [bn, ∞)
+    private final double[] priceBoundaries;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    private Columns columns;
+    // Изменения, пришедшие во время полной перестройки, — их нужно применить и к новым колонкам
+    private List<PublicationChangedEvent> pending;
+    private volatile boolean ready;
+
+    public CatalogFacetIndex(PublicationRepository publicationRepository,
+                             @Value("${app.catalog-facets.price-buckets:200,300,400}") double[] priceBoundaries) {
+        this.publicationRepository = publicationRepository;
+        this.priceBoundaries = priceBoundaries.clone();
+        Arrays.sort(this.priceBoundaries);
+        this.columns = new Columns(this.priceBoundaries);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Columns rebuilt = new Columns(priceBoundaries);
+            try {
+                for (PublicationSummary summary : publicationRepository.findAllSummariesOrderedById()) {
+                    rebuilt.put(summary);
+                }
+            } catch (RuntimeException e) {
+                // Следующий запрос каталога попробует построить индекс ещё раз
+                log.error("Catalog facet index rebuild failed", e);
+                lock.writeLock().lock();
+                try {
+                    pending = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                return;
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (PublicationChangedEvent event : pending) {
+                    rebuilt.apply(event);
+                }
+                pending = null;
+                columns = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Catalog facet index built: {} publications", rebuilt.ordinals.size());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPublicationChanged(PublicationChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            columns.apply(event);
+            if (columns.needsCompaction()) {
+                columns = columns.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Страница каталога с учётом фильтров и счётчики для каждого фильтра.
+     *
+     * @param rankedIds найденные полнотекстовым поиском публикации по убыванию релевантности;
+     *                  null — поиск недоступен, и строка запроса ищется как подстрока названия
+     */
+    public FacetedPage<PublicationSummary> query(CatalogFilter filter, long[] rankedIds, Pageable pageable) {
+        ensureReady();
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            BitSet base = (BitSet) current.live.clone();
+            if (filter.hasSearchQuery()) {
+                base.and(rankedIds != null ? current.ordinalsOf(rankedIds) : current.titleMatches(filter.searchQuery()));
+            }
+            if (filter.createdAfter() != null) {
+                base.and(current.createdSince(filter.createdAfter().atStartOfDay()));
+            }
+            BitSet byType = filter.types().isEmpty() ? null : current.ofTypes(filter.types());
+            BitSet byPrice = filter.minPrice() == null && filter.maxPrice() == null
+                    ? null : current.priceBetween(filter.minPrice(), filter.maxPrice());
+
+            // Счётчик фильтра не учитывает сам этот фильтр
+            BitSet typeFacetBase = intersect(base, byPrice);
+            BitSet priceFacetBase = intersect(base, byType);
+            BitSet matched = intersect(typeFacetBase, byType);
+
+            List<PublicationSummary> content = filter.hasSearchQuery() && rankedIds != null
+                    ? current.pageInOrder(rankedIds, matched, pageable)
+                    : current.page(matched, pageable);
+            return new FacetedPage<>(content, pageable, matched.cardinality(),
+                    new CatalogFacets(current.typeCounts(typeFacetBase), current.priceCounts(priceFacetBase)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Запрос пришёл раньше ApplicationReadyEvent или первая сборка не удалась
+    private void ensureReady() {
+        if (ready) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            if (!ready) {
+                rebuild();
+            }
+        }
+        if (!ready) {
+            throw new IllegalStateException("Индекс каталога недоступен");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.facets.documents", this, index -> index.liveCount())
+                .description("Publications in the catalog facet index")
+                .register(registry);
+    }
+
+    private int liveCount() {
+        lock.readLock().lock();
+        try {
+            return columns.ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static BitSet intersect(BitSet left, BitSet right) {
+        BitSet result = (BitSet) left.clone();
+        if (right != null) {
+            result.and(right);
+        }
+        return result;
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime == null ? Long.MIN_VALUE : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Колонки по порядковому номеру публикации. Номера выдаются по возрастанию id,
+     * поэтому обход маски по возрастанию даёт каталог в порядке id. Удалённые номера
+     * остаются пустыми до уплотнения.
+     */
+    static final class Columns {
+        final double[] priceBoundaries;
+        final Map<Long, Integer> ordinals = new HashMap<>();
+        PublicationSummary[] summaries = new PublicationSummary[1024];
+        double[] prices = new double[1024];
+        long[] createdAt = new long[1024];
+        final BitSet live = new BitSet();
+        final BitSet[] byType = new BitSet[TYPES.length];
+        final BitSet[] byPriceBucket;
+        int size;
+
+        Columns(double[] priceBoundaries) {
+            this.priceBoundaries = priceBoundaries;
+            for (int i = 0; i < byType.length; i++) {
+                byType[i] = new BitSet();
+            }
+            byPriceBucket = new BitSet[priceBoundaries.length + 1];
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                byPriceBucket[i] = new BitSet();
+            }
+        }
+
+        void apply(PublicationChangedEvent event) {
+            if (event.type() == PublicationChangedEvent.Type.DELETED) {
+                remove(event.publicationId());
+            } else {
+                Publication publication = event.publication();
+                put(new PublicationSummary(publication.getId(), publication.getTitle(), publication.getDescription(),
+                        publication.getType(), publication.getPricePerMonth(), publication.getCreatedAt()));
+            }
+        }
+
+        // Изменённая публикация остаётся на своём месте, новая добавляется в конец
+        void put(PublicationSummary summary) {
+            Integer existing = ordinals.get(summary.id());
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                clearBits(ordinal);
+            } else {
+                if (size == summaries.length) {
+                    summaries = Arrays.copyOf(summaries, size * 2);
+                    prices = Arrays.copyOf(prices, size * 2);
+                    createdAt = Arrays.copyOf(createdAt, size * 2);
+                }
+                ordinal = size++;
+                ordinals.put(summary.id(), ordinal);
+            }
+            double price = summary.pricePerMonth() == null ? 0 : summary.pricePerMonth();
+            summaries[ordinal] = summary;
+            prices[ordinal] = price;
+            createdAt[ordinal] = epochSecond(summary.createdAt());
+            live.set(ordinal);
+            if (summary.type() != null) {
+                byType[summary.type().ordinal()].set(ordinal);
+            }
+            byPriceBucket[bucketOf(price)].set(ordinal);
+        }
+
+        void remove(Long id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return;
+            }
+            clearBits(ordinal);
+            summaries[ordinal] = null;
+        }
+
+        boolean needsCompaction() {
+            int dead = size - ordinals.size();
+            return dead > 1024 && dead > ordinals.size();
+        }
+
+        Columns compact() {
+            Columns compacted = new Columns(priceBoundaries);
+            for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                compacted.put(summaries[ordinal]);
+            }
+            return compacted;
+        }
+
+        BitSet ofTypes(Iterable<PublicationType> types) {
+            BitSet result = new BitSet();
+            for (PublicationType type : types) {
+                result.or(byType[type.ordinal()]);
+            }
+            return result;
+        }
+
+        // Диапазоны, целиком попавшие в [min, max], берутся маской, остальные проверяются по колонке цен
+        BitSet priceBetween(Double min, Double max) {
+            double low = min == null ? Double.NEGATIVE_INFINITY : min;
+            double high = max == null ? Double.POSITIVE_INFINITY : max;
+            BitSet result = new BitSet();
+            for (int bucket = 0; bucket < byPriceBucket.length; bucket++) {
+                double from = bucket == 0 ? Double.NEGATIVE_INFINITY : priceBoundaries[bucket - 1];
+                double to = bucket == priceBoundaries.length ? Double.POSITIVE_INFINITY : priceBoundaries[bucket];
+                if (to <= low || from > high) {
+                    continue;
+                }
+                BitSet members = byPriceBucket[bucket];
+                if (from >= low && to <= high) {
+                    result.or(members);
+                    continue;
+                }
+                for (int ordinal = members.nextSetBit(0); ordinal >= 0; ordinal = members.nextSetBit(ordinal + 1)) {
+                    if (prices[ordinal] >= low && prices[ordinal] <= high) {
+                        result.set(ordinal);
+                    }
+                }
+            }
+            return result;
+        }
+
+        BitSet createdSince(LocalDateTime since) {
+            long from = epochSecond(since);
+            BitSet result = new BitSet(size);
+            for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                if (createdAt[ordinal] >= from) {
+                    result.set(ordinal);
+                }
+            }
+            return result;
+        }
+
+        BitSet ordinalsOf(long[] ids) {
+            BitSet result = new BitSet(size);
+            for (long id : ids) {
+                Integer ordinal = ordinals.get(id);
+                if (ordinal != null) {
+                    result.set(ordinal);
+                }
+            }
+            return result;
+        }
+
+        BitSet titleMatches(String query) {
+            String needle = query.toLowerCase(Locale.ROOT);
+            BitSet result = new BitSet(size);
+            for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                if (summaries[ordinal].title().toLowerCase(Locale.ROOT).contains(needle)) {
+                    result.set(ordinal);
+                }
+            }
+            return result;
+        }
+
+        List<PublicationSummary> page(BitSet matched, Pageable pageable) {
+            List<PublicationSummary> content = new ArrayList<>(Math.min(pageable.getPageSize(), matched.cardinality()));
+            long skip = pageable.getOffset();
+            for (int ordinal = matched.nextSetBit(0); ordinal >= 0 && content.size() < pageable.getPageSize();
+                 ordinal = matched.nextSetBit(ordinal + 1)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    content.add(summaries[ordinal]);
+                }
+            }
+            return content;
+        }
+
+        List<PublicationSummary> pageInOrder(long[] rankedIds, BitSet matched, Pageable pageable) {
+            List<PublicationSummary> content = new ArrayList<>(Math.min(pageable.getPageSize(), matched.cardinality()));
+            long skip = pageable.getOffset();
+            for (int i = 0; i < rankedIds.length && content.size() < pageable.getPageSize(); i++) {
+                Integer ordinal = ordinals.get(rankedIds[i]);
+                if (ordinal == null || !matched.get(ordinal)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    content.add(summaries[ordinal]);
+                }
+            }
+            return content;
+        }
+
+        Map<PublicationType, Integer> typeCounts(BitSet base) {
+            Map<PublicationType, Integer> counts = new EnumMap<>(PublicationType.class);
+            for (PublicationType type : TYPES) {
+                counts.put(type, intersectionSize(base, byType[type.ordinal()]));
+            }
+            return counts;
+        }
+
+        List<CatalogFacets.PriceBucket> priceCounts(BitSet base) {
+            List<CatalogFacets.PriceBucket> buckets = new ArrayList<>(byPriceBucket.length);
+            for (int bucket = 0; bucket < byPriceBucket.length; bucket++) {
+                double from = bucket == 0 ? 0 : priceBoundaries[bucket - 1];
+                Double to = bucket == priceBoundaries.length ? null : priceBoundaries[bucket];
+                buckets.add(new CatalogFacets.PriceBucket(from, to, intersectionSize(base, byPriceBucket[bucket])));
+            }
+            return buckets;
+        }
+
+        private int bucketOf(double price) {
+            int bucket = 0;
+            while (bucket < priceBoundaries.length && price >= priceBoundaries[bucket]) {
+                bucket++;
+            }
+            return bucket;
+        }
+
+        private void clearBits(int ordinal) {
+            live.clear(ordinal);
+            for (BitSet members : byType) {
+                members.clear(ordinal);
+            }
+            for (BitSet members : byPriceBucket) {
+                members.clear(ordinal);
+            }
+        }
+
+        private static int intersectionSize(BitSet left, BitSet right) {
+            BitSet both = (BitSet) left.clone();
+            both.and(right);
+            return both.cardinality();
+        }
+    }
+}
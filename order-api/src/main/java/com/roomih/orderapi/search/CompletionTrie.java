@@ -0,0 +1,188 @@
+package com.roomih.orderapi.search;
+
+import com.roomih.orderapi.dto.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Неизменяемое префиксное дерево для подсказок. Ключи — нормализованное название,
+ * начиная с каждого слова, так что «geo» находит «National Geographic».
+ * Каждый узел хранит номера лучших записей своего поддерева, поэтому ответ — это
+ * спуск по символам префикса и чтение готового списка, без обхода поддерева.
+ * Узлы лежат в плоских массивах: дети узла идут подряд и отсортированы по символу.
+ */
+final class CompletionTrie {
+
+    // Глубже ключи не индексируются; более длинный префикс дофильтровывается по названию
+    static final int MAX_DEPTH = 32;
+
+    static final CompletionTrie EMPTY = build(List.of(), 1);
+
+    record Entry(Suggestion suggestion, String normalizedTitle) {
+    }
+
+    private final Entry[] entries;
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final byte[] topCount;
+    private final int[] topPool;
+
+    private CompletionTrie(Entry[] entries, char[] labels, int[] firstChild, int[] childCount,
+                           int[] topStart, byte[] topCount, int[] topPool) {
+        this.entries = entries;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.topStart = topStart;
+        this.topCount = topCount;
+        this.topPool = topPool;
+    }
+
+    /**
+     * @param rankedEntries записи от самой популярной к наименее популярной
+     * @param topSize       сколько лучших записей хранить в каждом узле
+     */
+    static CompletionTrie build(List<Entry> rankedEntries, int topSize) {
+        MutableNode root = new MutableNode('\0', topSize);
+        int nodes = 1;
+        for (int rank = 0; rank < rankedEntries.size(); rank++) {
+            String title = rankedEntries.get(rank).normalizedTitle();
+            for (int start = 0; start < title.length(); start++) {
+                if (start > 0 && title.charAt(start - 1) != ' ') {
+                    continue;
+                }
+                MutableNode node = root;
+                int end = Math.min(title.length(), start + MAX_DEPTH);
+                for (int i = start; i < end; i++) {
+                    char c = title.charAt(i);
+                    MutableNode child = node.children.get(c);
+                    if (child == null) {
+                        child = new MutableNode(c, topSize);
+                        node.children.put(c, child);
+                        nodes++;
+                    }
+                    // Записи идут по убыванию популярности, так что список узла сразу отсортирован
+                    child.offer(rank);
+                    node = child;
+                }
+            }
+        }
+        return flatten(root, nodes, rankedEntries.toArray(Entry[]::new));
+    }
+
+    /**
+     * @param normalizedPrefix префикс, приведённый через {@link TitleSuggester#normalize(String)}
+     */
+    List<Suggestion> complete(String normalizedPrefix, int limit) {
+        if (normalizedPrefix.isEmpty() || labels.length == 0) {
+            return List.of();
+        }
+        int node = 0;
+        int depth = Math.min(normalizedPrefix.length(), MAX_DEPTH);
+        for (int i = 0; i < depth; i++) {
+            node = child(node, normalizedPrefix.charAt(i));
+            if (node < 0) {
+                return List.of();
+            }
+        }
+
+        boolean truncated = normalizedPrefix.length() > MAX_DEPTH;
+        String wordPrefix = " " + normalizedPrefix;
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, topCount[node]));
+        for (int i = 0; i < topCount[node] && suggestions.size() < limit; i++) {
+            Entry entry = entries[topPool[topStart[node] + i]];
+            if (!truncated || (" " + entry.normalizedTitle()).contains(wordPrefix)) {
+                suggestions.add(entry.suggestion());
+            }
+        }
+        return suggestions;
+    }
+
+    int nodeCount() {
+        return labels.length;
+    }
+
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < c) {
+                low = mid + 1;
+            } else if (labels[mid] > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static CompletionTrie flatten(MutableNode root, int nodes, Entry[] entries) {
+        // Обход в ширину: дети каждого узла получают соседние номера
+        MutableNode[] order = new MutableNode[nodes];
+        char[] labels = new char[nodes];
+        int[] firstChild = new int[nodes];
+        int[] childCount = new int[nodes];
+        order[0] = root;
+        int next = 1;
+        for (int i = 0; i < nodes; i++) {
+            MutableNode node = order[i];
+            labels[i] = node.label;
+            firstChild[i] = next;
+            childCount[i] = node.children.size();
+            for (MutableNode child : node.children.values()) {
+                order[next++] = child;
+            }
+        }
+
+        // Снизу вверх: узел с единственным ребёнком и тем же списком ссылается на список ребёнка.
+        // Длинные цепочки уникальных названий так не раздувают пул.
+        int[] topStart = new int[nodes];
+        byte[] topCount = new byte[nodes];
+        int[] pool = new int[64];
+        int poolSize = 0;
+        for (int i = nodes - 1; i >= 0; i--) {
+            MutableNode node = order[i];
+            int only = childCount[i] == 1 ? firstChild[i] : -1;
+            if (only >= 0 && Arrays.equals(node.top, 0, node.topSize, order[only].top, 0, order[only].topSize)) {
+                topStart[i] = topStart[only];
+            } else {
+                if (poolSize + node.topSize > pool.length) {
+                    pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + node.topSize));
+                }
+                System.arraycopy(node.top, 0, pool, poolSize, node.topSize);
+                topStart[i] = poolSize;
+                poolSize += node.topSize;
+            }
+            topCount[i] = (byte) node.topSize;
+        }
+        return new CompletionTrie(entries, labels, firstChild, childCount, topStart, topCount,
+                Arrays.copyOf(pool, poolSize));
+    }
+
+    private static final class MutableNode {
+        final char label;
+        final Map<Character, MutableNode> children = new TreeMap<>();
+        final int[] top;
+        int topSize;
+
+        MutableNode(char label, int topSize) {
+            this.label = label;
+            this.top = new int[topSize];
+        }
+
+        void offer(int rank) {
+            // Одна запись может пройти через узел несколько раз — по разным словам названия
+            if (topSize < top.length && (topSize == 0 || top[topSize - 1] != rank)) {
+                top[topSize++] = rank;
+            }
+        }
+    }
+}
@@ -0,0 +1,609 @@
+package com.roomih.orderapi.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.util.HtmlUtils;
+
+import com.roomih.orderapi.dto.PublicationDocument;
+import com.roomih.orderapi.dto.PublicationSummary;
+import com.roomih.orderapi.dto.SearchHit;
+import com.roomih.orderapi.event.PublicationChangedEvent;
+import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.repository.PublicationRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Инвертированный индекс публикаций в памяти процесса с ранжированием BM25F
+ * по полям title, description и content.
+ * Строится из базы при старте и дальше обновляется по PublicationChangedEvent после коммита.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PublicationSearchIndex implements MeterBinder {
+
+    private static final int TITLE = 0;
+    private static final int DESCRIPTION = 1;
+    private static final int CONTENT = 2;
+    private static final int FIELDS = 3;
+
+    // BM25F: вес поля и степень нормализации по его длине
+    private static final float[] FIELD_WEIGHTS = {3.0f, 1.5f, 1.0f};
+    private static final float[] LENGTH_NORMS = {0.5f, 0.75f, 0.75f};
+    private static final float K1 = 1.2f;
+
+    // Последнее слово запроса раскрывается как префикс, но не шире этого числа термов
+    private static final int MAX_PREFIX_EXPANSIONS = 16;
+
+    private static final int SNIPPET_CONTEXT = 60;
+    private static final int SNIPPET_LENGTH = 200;
+
+    private final PublicationRepository publicationRepository;
+
+    // Подсчёт не ждёт ввода-вывода, так что больше одновременных запросов, чем ядер, массивам не нужно.
+    // Лишние создаются на время запроса и отдаются сборщику мусора.
+    private final BlockingQueue<Scratch> scratchPool = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Segment segment = new Segment();
+    // Изменения, пришедшие во время полной перестройки, — их нужно применить и к новому сегменту
+    private List<PublicationChangedEvent> pending;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment rebuilt = new Segment();
+        try (Stream<PublicationDocument> documents = publicationRepository.streamAllDocuments()) {
+            documents.forEach(document -> rebuilt.add(document.summary(), document.content()));
+        } catch (RuntimeException e) {
+            // Поиск продолжит работать через запросы к базе
+            log.error("Search index rebuild failed", e);
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (PublicationChangedEvent event : pending) {
+                rebuilt.apply(event);
+            }
+            pending = null;
+            segment = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built: {} publications, {} terms", rebuilt.live, rebuilt.postings.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPublicationChanged(PublicationChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            segment.apply(event);
+            if (segment.needsCompaction()) {
+                segment = segment.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Page<SearchHit> search(String query, Pageable pageable) {
+        Set<String> terms = TextAnalyzer.distinctTerms(query);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        String prefix = unfinishedWord(query);
+        long wanted = pageable.getOffset() + pageable.getPageSize();
+
+        Scratch scratch = borrowScratch();
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            Set<String> matchedTerms = new HashSet<>(terms);
+            Map<String, Postings> queryPostings = current.lookup(terms, prefix, matchedTerms);
+            int matchedCount = current.score(queryPostings.values(), scratch);
+            try {
+                int[] top = topK(scratch.matched, matchedCount, scratch.scores, (int) Math.min(wanted, Integer.MAX_VALUE));
+                List<SearchHit> hits = new ArrayList<>();
+                for (long i = pageable.getOffset(); i < top.length; i++) {
+                    int ordinal = top[(int) i];
+                    Document document = current.documents[ordinal];
+                    hits.add(new SearchHit(document.summary(), scratch.scores[ordinal], snippet(document, matchedTerms, current.matchedFields(queryPostings.values(), ordinal))));
+                }
+                return new PageImpl<>(hits, pageable, matchedCount);
+            } finally {
+                scratch.clear(matchedCount);
+            }
+        } finally {
+            lock.readLock().unlock();
+            scratchPool.offer(scratch);
+        }
+    }
+
+    /**
+     * Идентификаторы всех найденных публикаций по убыванию релевантности — для фильтров каталога,
+     * которые накладываются поверх поиска.
+     */
+    public long[] rankedIds(String query) {
+        Set<String> terms = TextAnalyzer.distinctTerms(query);
+        if (terms.isEmpty()) {
+            return new long[0];
+        }
+        String prefix = unfinishedWord(query);
+
+        Scratch scratch = borrowScratch();
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            Map<String, Postings> queryPostings = current.lookup(terms, prefix, new HashSet<>(terms));
+            int matchedCount = current.score(queryPostings.values(), scratch);
+            try {
+                int[] top = topK(scratch.matched, matchedCount, scratch.scores, matchedCount);
+                long[] ids = new long[top.length];
+                for (int i = 0; i < top.length; i++) {
+                    ids[i] = current.documents[top[i]].summary().id();
+                }
+                return ids;
+            } finally {
+                scratch.clear(matchedCount);
+            }
+        } finally {
+            lock.readLock().unlock();
+            scratchPool.offer(scratch);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("search.index.documents", this, index -> index.segment.live)
+                .description("Publications in the full-text index")
+                .register(registry);
+        Gauge.builder("search.index.terms", this, index -> index.segment.postings.size())
+                .description("Distinct terms in the full-text index")
+                .register(registry);
+    }
+
+    private Scratch borrowScratch() {
+        Scratch scratch = scratchPool.poll();
+        return scratch != null ? scratch : new Scratch();
+    }
+
+    // Слово, на котором обрывается запрос: пользователь, скорее всего, ещё его печатает
+    private static String unfinishedWord(String query) {
+        String[] last = new String[1];
+        TextAnalyzer.analyze(query, (term, start, end) -> last[0] = end == query.length() ? term : null);
+        return last[0];
+    }
+
+    // Фрагмент берётся из первого совпавшего поля в порядке content, description, title
+    private static String snippet(Document document, Set<String> terms, int fields) {
+        if ((fields & 1 << CONTENT) != 0) {
+            return highlight(document.content(), terms);
+        }
+        if ((fields & 1 << DESCRIPTION) != 0) {
+            return highlight(document.summary().description(), terms);
+        }
+        return highlight(document.summary().title(), terms);
+    }
+
+    static String highlight(String text, Set<String> terms) {
+        if (text == null) {
+            return null;
+        }
+        List<int[]> spans = new ArrayList<>();
+        // Дальше первого совпадения плюс длина фрагмента разбирать незачем
+        TextAnalyzer.scanMatching(text, terms, (term, start, end) -> {
+            if (!spans.isEmpty() && start > spans.get(0)[0] + SNIPPET_LENGTH) {
+                return false;
+            }
+            spans.add(new int[]{start, end});
+            return true;
+        });
+        if (spans.isEmpty()) {
+            return null;
+        }
+
+        int[] first = spans.get(0);
+        int from = Math.max(0, first[0] - SNIPPET_CONTEXT);
+        if (from > 0) {
+            int space = text.indexOf(' ', from);
+            if (space >= 0 && space < first[0]) {
+                from = space + 1;
+            }
+        }
+        int to = Math.min(text.length(), Math.max(from + SNIPPET_LENGTH, first[1]));
+        if (to < text.length()) {
+            int space = text.lastIndexOf(' ', to);
+            if (space > first[1]) {
+                to = space;
+            }
+        }
+
+        StringBuilder snippet = new StringBuilder(to - from + 32);
+        if (from > 0) {
+            snippet.append('…');
+        }
+        int position = from;
+        for (int[] span : spans) {
+            if (span[1] > to) {
+                break;
+            }
+            snippet.append(HtmlUtils.htmlEscape(text.substring(position, span[0])))
+                    .append("<mark>")
+                    .append(HtmlUtils.htmlEscape(text.substring(span[0], span[1])))
+                    .append("</mark>");
+            position = span[1];
+        }
+        snippet.append(HtmlUtils.htmlEscape(text.substring(position, to)));
+        if (to < text.length()) {
+            snippet.append('…');
+        }
+        return snippet.toString();
+    }
+
+    // Лучшие k документов по убыванию score; при равенстве выше более новый (больший порядковый номер)
+    private static int[] topK(int[] documents, int count, float[] scores, int k) {
+        int[] heap = new int[Math.min(k, count)];
+        int heapSize = 0;
+        for (int i = 0; i < count; i++) {
+            int document = documents[i];
+            if (heapSize < heap.length) {
+                heap[heapSize] = document;
+                siftUp(heap, heapSize++, scores);
+            } else if (heapSize > 0 && better(document, heap[0], scores)) {
+                heap[0] = document;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+        int[] sorted = new int[heapSize];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, scores);
+        }
+        return sorted;
+    }
+
+    private static boolean better(int a, int b, float[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a > b);
+    }
+
+    private static void siftUp(int[] heap, int index, float[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], heap[index], scores)) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        int index = 0;
+        while (true) {
+            int worst = 2 * index + 1;
+            if (worst >= size) {
+                return;
+            }
+            if (worst + 1 < size && better(heap[worst], heap[worst + 1], scores)) {
+                worst++;
+            }
+            if (!better(heap[index], heap[worst], scores)) {
+                return;
+            }
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private record Document(PublicationSummary summary, String content) {
+    }
+
+    /**
+     * Рабочие массивы запроса, берутся из пула на время одного запроса. Размером с индекс, поэтому
+     * не выделяются заново на каждый запрос; после запроса обнуляются только затронутые ячейки.
+     */
+    private static final class Scratch {
+        float[] scores = new float[0];
+        int[] matched = new int[64];
+
+        void ensureCapacity(int size) {
+            if (scores.length < size) {
+                scores = new float[Math.max(size, scores.length * 2)];
+            }
+        }
+
+        void clear(int matchedCount) {
+            for (int i = 0; i < matchedCount; i++) {
+                scores[matched[i]] = 0f;
+            }
+        }
+    }
+
+    /**
+     * Список документов с частотами терма. Частоты по трём полям упакованы в один int:
+     * title и description по 10 бит, content 12 бит (с насыщением).
+     */
+    private static final class Postings {
+        int[] documents = new int[2];
+        int[] frequencies = new int[2];
+        int size;
+        int live;
+
+        void add(int document, int[] frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = Math.min(frequency[TITLE], 1023)
+                    | Math.min(frequency[DESCRIPTION], 1023) << 10
+                    | Math.min(frequency[CONTENT], 4095) << 20;
+            size++;
+            live++;
+        }
+
+        // Номера документов в списке возрастают, поэтому можно искать бинарно
+        int frequencyOf(int document) {
+            int index = Arrays.binarySearch(documents, 0, size, document);
+            return index < 0 ? 0 : frequencies[index];
+        }
+    }
+
+    /**
+     * Всё изменяемое состояние индекса. Удалённые документы остаются в списках
+     * до уплотнения и пропускаются при подсчёте.
+     */
+    private static final class Segment {
+        final NavigableMap<String, Postings> postings = new TreeMap<>();
+        final Map<Long, Integer> ordinals = new HashMap<>();
+        Document[] documents = new Document[1024];
+        int[] fieldLengths = new int[1024 * FIELDS];
+        final long[] totalLengths = new long[FIELDS];
+        int size;
+        int live;
+        // Пересчитывается лениво под read lock, поэтому volatile
+        private volatile float[] fieldBoosts;
+
+        void apply(PublicationChangedEvent event) {
+            if (event.type() == PublicationChangedEvent.Type.DELETED) {
+                remove(event.publicationId());
+            } else {
+                add(event.publication());
+            }
+        }
+
+        void add(Publication publication) {
+            add(new PublicationSummary(publication.getId(), publication.getTitle(), publication.getDescription(),
+                    publication.getType(), publication.getPricePerMonth(), publication.getCreatedAt()),
+                    publication.getContent());
+        }
+
+        void add(PublicationSummary summary, String content) {
+            remove(summary.id());
+
+            String[] fields = {summary.title(), summary.description(), content};
+            Map<String, int[]> frequencies = new HashMap<>();
+            int[] lengths = new int[FIELDS];
+            for (int field = 0; field < FIELDS; field++) {
+                int current = field;
+                TextAnalyzer.analyze(fields[field], (term, start, end) -> {
+                    frequencies.computeIfAbsent(term, t -> new int[FIELDS])[current]++;
+                    lengths[current]++;
+                });
+            }
+
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                fieldLengths = Arrays.copyOf(fieldLengths, size * 2 * FIELDS);
+            }
+            int ordinal = size++;
+            documents[ordinal] = new Document(summary, content);
+            System.arraycopy(lengths, 0, fieldLengths, ordinal * FIELDS, FIELDS);
+            ordinals.put(summary.id(), ordinal);
+            frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new Postings()).add(ordinal, frequency));
+            for (int field = 0; field < FIELDS; field++) {
+                totalLengths[field] += lengths[field];
+            }
+            live++;
+            fieldBoosts = null;
+        }
+
+        void remove(Long id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return;
+            }
+            Document document = documents[ordinal];
+            documents[ordinal] = null;
+
+            Set<String> terms = new HashSet<>();
+            TextAnalyzer.analyze(document.summary().title(), (term, start, end) -> terms.add(term));
+            TextAnalyzer.analyze(document.summary().description(), (term, start, end) -> terms.add(term));
+            TextAnalyzer.analyze(document.content(), (term, start, end) -> terms.add(term));
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list != null && --list.live == 0) {
+                    postings.remove(term);
+                }
+            }
+            for (int field = 0; field < FIELDS; field++) {
+                totalLengths[field] -= fieldLengths[ordinal * FIELDS + field];
+            }
+            live--;
+            fieldBoosts = null;
+        }
+
+        boolean needsCompaction() {
+            int dead = size - live;
+            return dead > 1024 && dead > live;
+        }
+
+        Segment compact() {
+            Segment compacted = new Segment();
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                Document document = documents[ordinal];
+                if (document != null) {
+                    compacted.add(document.summary(), document.content());
+                }
+            }
+            return compacted;
+        }
+
+        Map<String, Postings> lookup(Set<String> terms, String prefix, Set<String> matchedTerms) {
+            Map<String, Postings> found = new HashMap<>();
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list != null) {
+                    found.put(term, list);
+                }
+            }
+            if (prefix != null) {
+                int expansions = 0;
+                for (Map.Entry<String, Postings> entry : postings.tailMap(prefix, true).entrySet()) {
+                    if (!entry.getKey().startsWith(prefix) || expansions++ == MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    found.put(entry.getKey(), entry.getValue());
+                    matchedTerms.add(entry.getKey());
+                }
+            }
+            return found;
+        }
+
+        // Битовая маска полей документа, в которых встретился хотя бы один терм запроса
+        int matchedFields(Iterable<Postings> lists, int ordinal) {
+            int fields = 0;
+            for (Postings list : lists) {
+                int packed = list.frequencyOf(ordinal);
+                if ((packed & 1023) != 0) {
+                    fields |= 1 << TITLE;
+                }
+                if (((packed >>> 10) & 1023) != 0) {
+                    fields |= 1 << DESCRIPTION;
+                }
+                if ((packed >>> 20) != 0) {
+                    fields |= 1 << CONTENT;
+                }
+            }
+            return fields;
+        }
+
+        // Возвращает число найденных документов; их номера — в scratch.matched, очки — в scratch.scores
+        int score(Iterable<Postings> lists, Scratch scratch) {
+            if (live == 0) {
+                return 0;
+            }
+            scratch.ensureCapacity(size);
+            float[] scores = scratch.scores;
+            float[] boosts = fieldBoosts();
+            int matchedCount = 0;
+
+            int[] matched = scratch.matched;
+            for (Postings list : lists) {
+                float idf = (float) Math.log(1 + (live - list.live + 0.5) / (list.live + 0.5));
+                int[] ordinals = list.documents;
+                int[] frequencies = list.frequencies;
+                for (int i = 0, n = list.size; i < n; i++) {
+                    int ordinal = ordinals[i];
+                    int packed = frequencies[i];
+                    int base = ordinal * FIELDS;
+                    float tf = (packed & 1023) * boosts[base + TITLE]
+                            + ((packed >>> 10) & 1023) * boosts[base + DESCRIPTION]
+                            + (packed >>> 20) * boosts[base + CONTENT];
+                    // У удалённых документов нулевые веса полей
+                    if (tf == 0f) {
+                        continue;
+                    }
+                    if (scores[ordinal] == 0f) {
+                        if (matchedCount == matched.length) {
+                            matched = Arrays.copyOf(matched, matchedCount * 2);
+                            scratch.matched = matched;
+                        }
+                        matched[matchedCount++] = ordinal;
+                    }
+                    scores[ordinal] += idf * tf / (K1 + tf);
+                }
+            }
+            return matchedCount;
+        }
+
+        // Вес поля, делённый на BM25-нормализацию по длине, для каждого документа и поля.
+        // Зависит от средних длин, поэтому сбрасывается при любом изменении и пересчитывается первым запросом.
+        private float[] fieldBoosts() {
+            float[] boosts = fieldBoosts;
+            if (boosts != null) {
+                return boosts;
+            }
+            float[] averageLengths = new float[FIELDS];
+            for (int field = 0; field < FIELDS; field++) {
+                averageLengths[field] = Math.max(1f, (float) totalLengths[field] / live);
+            }
+            boosts = new float[size * FIELDS];
+            for (int i = 0; i < boosts.length; i++) {
+                if (documents[i / FIELDS] == null) {
+                    continue;
+                }
+                int field = i % FIELDS;
+                float norm = 1 - LENGTH_NORMS[field] + LENGTH_NORMS[field] * fieldLengths[i] / averageLengths[field];
+                boosts[i] = FIELD_WEIGHTS[field] / norm;
+            }
+            fieldBoosts = boosts;
+            return boosts;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.roomih.orderapi.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Разбор текста на термы для поискового индекса: нижний регистр, ё → е,
+ * стоп-слова и лёгкий стемминг (только словоизменительные окончания) для русского и английского.
+ * Один и тот же разбор применяется к документам и к запросу.
+ */
+public final class TextAnalyzer {
+
+    @FunctionalInterface
+    public interface TokenSink {
+        void accept(String term, int start, int end);
+    }
+
+    // Как TokenSink, но false останавливает разбор
+    @FunctionalInterface
+    public interface TokenVisitor {
+        boolean visit(String term, int start, int end);
+    }
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "to", "with",
+            "и", "в", "во", "не", "что", "он", "на", "я", "с", "со", "как", "а", "то", "все", "она",
+            "так", "его", "но", "да", "ты", "к", "у", "же", "вы", "за", "бы", "по", "ее", "было",
+            "от", "о", "об", "из", "для", "это", "или", "до", "при");
+
+    // Отсортированы по убыванию длины: снимается самое длинное подходящее окончание
+    private static final String[] RUSSIAN_ENDINGS = {
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "иях", "ией",
+            "ах", "ях", "ой", "ей", "ий", "ый", "ая", "яя", "ое", "ее", "ие", "ые", "ом", "ем",
+            "ам", "ям", "ую", "юю", "ов", "ев", "ию", "ия", "ье", "ья",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "й", "ь"};
+
+    // Те же окончания, разложенные по последней букве: проверяются только подходящие
+    private static final String[][] RUSSIAN_ENDINGS_BY_LAST_LETTER = groupByLastLetter(RUSSIAN_ENDINGS);
+
+    private static final int MIN_STEM = 3;
+
+    private TextAnalyzer() {
+    }
+
+    public static void analyze(String text, TokenSink sink) {
+        scan(text, (term, start, end) -> {
+            sink.accept(term, start, end);
+            return true;
+        });
+    }
+
+    public static void scan(String text, TokenVisitor visitor) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        StringBuilder word = new StringBuilder(32);
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            word.setLength(0);
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                word.append(fold(text.charAt(i)));
+                i++;
+            }
+            if (word.length() > 0) {
+                String term = normalize(word.toString());
+                if (term != null && !visitor.visit(term, start, i)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Вызывает visitor только для слов, чей терм входит в terms. Слова, которые не начинаются
+     * с основы ни одного из термов, отбрасываются без построения строки — так дешевле подсвечивать.
+     */
+    public static void scanMatching(String text, Collection<String> terms, TokenVisitor visitor) {
+        if (text == null) {
+            return;
+        }
+        String[] candidates = terms.toArray(String[]::new);
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (start < i && startsWithAnyStem(text, start, i, candidates)) {
+                StringBuilder word = new StringBuilder(i - start);
+                for (int k = start; k < i; k++) {
+                    word.append(fold(text.charAt(k)));
+                }
+                String term = normalize(word.toString());
+                if (term != null && terms.contains(term) && !visitor.visit(term, start, i)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        analyze(text, (term, start, end) -> terms.add(term));
+        return terms;
+    }
+
+    public static Set<String> distinctTerms(String text) {
+        return new LinkedHashSet<>(terms(text));
+    }
+
+    private static char fold(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    // Терм — это слово без окончания, кроме ies → y, поэтому сверяем всё, кроме последней буквы терма
+    private static boolean startsWithAnyStem(String text, int start, int end, String[] terms) {
+        for (String term : terms) {
+            int stem = Math.max(1, term.length() - 1);
+            if (end - start < stem) {
+                continue;
+            }
+            int k = 0;
+            while (k < stem && fold(text.charAt(start + k)) == term.charAt(k)) {
+                k++;
+            }
+            if (k == stem) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String normalize(String word) {
+        if (STOP_WORDS.contains(word)) {
+            return null;
+        }
+        if (word.length() == 1 && !Character.isDigit(word.charAt(0))) {
+            return null;
+        }
+        char last = word.charAt(word.length() - 1);
+        if (last >= 'а' && last <= 'я') {
+            return stemRussian(word);
+        }
+        if (last >= 'a' && last <= 'z') {
+            return stemEnglish(word);
+        }
+        return word;
+    }
+
+    private static String stemRussian(String word) {
+        String[] endings = RUSSIAN_ENDINGS_BY_LAST_LETTER[word.charAt(word.length() - 1) - 'а'];
+        if (endings == null) {
+            return word;
+        }
+        for (String ending : endings) {
+            if (word.length() - ending.length() >= MIN_STEM && word.endsWith(ending)) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+
+    private static String stemEnglish(String word) {
+        int length = word.length();
+        if (length > 4 && word.endsWith("ies")) {
+            return word.substring(0, length - 3) + "y";
+        }
+        if (length > 4 && word.endsWith("sses")) {
+            return word.substring(0, length - 2);
+        }
+        if (length - 3 >= MIN_STEM && word.endsWith("ing")) {
+            return word.substring(0, length - 3);
+        }
+        if (length - 2 >= MIN_STEM && word.endsWith("ed")) {
+            return word.substring(0, length - 2);
+        }
+        if (length > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, length - 1);
+        }
+        return word;
+    }
+
+    private static String[][] groupByLastLetter(String[] endings) {
+        List<List<String>> groups = new ArrayList<>();
+        for (char c = 'а'; c <= 'я'; c++) {
+            groups.add(new ArrayList<>());
+        }
+        for (String ending : endings) {
+            groups.get(ending.charAt(ending.length() - 1) - 'а').add(ending);
+        }
+        String[][] grouped = new String[groups.size()][];
+        for (int i = 0; i < grouped.length; i++) {
+            grouped[i] = groups.get(i).isEmpty() ? null : groups.get(i).toArray(String[]::new);
+        }
+        return grouped;
+    }
+}
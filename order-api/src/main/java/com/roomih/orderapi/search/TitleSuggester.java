@@ -0,0 +1,132 @@
+package com.roomih.orderapi.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.roomih.orderapi.dto.PublicationPopularity;
+import com.roomih.orderapi.dto.Suggestion;
+import com.roomih.orderapi.event.PublicationChangedEvent;
+import com.roomih.orderapi.repository.PublicationRepository;
+import com.roomih.orderapi.repository.SubscriptionRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Подсказки для строки поиска по началу слов в названии. Порядок — по числу активных подписок.
+ * Дерево пересобирается из памяти при изменении каталога и по расписанию при обновлении популярности;
+ * запросы читают готовый неизменяемый снимок без блокировок.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TitleSuggester implements MeterBinder {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private final PublicationRepository publicationRepository;
+    private final SubscriptionRepository subscriptionRepository;
+
+    // Исходные данные для пересборки; меняются только в synchronized-методах
+    private final Map<Long, String> titles = new HashMap<>();
+    private Map<Long, Long> popularity = Map.of();
+
+    private volatile CompletionTrie trie = CompletionTrie.EMPTY;
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        // limit приходит из запроса как есть
+        return trie.complete(normalize(prefix), Math.max(0, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        titles.clear();
+        for (Suggestion suggestion : publicationRepository.findAllTitles()) {
+            titles.put(suggestion.id(), suggestion.title());
+        }
+        popularity = loadPopularity();
+        publish();
+        log.info("Suggestion trie built: {} titles, {} nodes", titles.size(), trie.nodeCount());
+    }
+
+    @Scheduled(fixedDelayString = "${app.suggest.popularity-refresh-seconds:300}",
+            initialDelayString = "${app.suggest.popularity-refresh-seconds:300}",
+            timeUnit = TimeUnit.SECONDS)
+    public synchronized void refreshPopularity() {
+        popularity = loadPopularity();
+        publish();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onPublicationChanged(PublicationChangedEvent event) {
+        if (event.type() == PublicationChangedEvent.Type.DELETED) {
+            titles.remove(event.publicationId());
+        } else {
+            titles.put(event.publicationId(), event.publication().getTitle());
+        }
+        publish();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("search.suggest.nodes", this, suggester -> suggester.trie.nodeCount())
+                .description("Nodes in the title suggestion trie")
+                .register(registry);
+    }
+
+    /**
+     * Нижний регистр, ё → е, всё кроме букв и цифр — один пробел.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                space = false;
+                char lower = Character.toLowerCase(c);
+                normalized.append(lower == 'ё' ? 'е' : lower);
+            } else {
+                space = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private Map<Long, Long> loadPopularity() {
+        Map<Long, Long> loaded = new HashMap<>();
+        for (PublicationPopularity row : subscriptionRepository.countActiveByPublication()) {
+            loaded.put(row.publicationId(), row.activeSubscriptions());
+        }
+        return loaded;
+    }
+
+    private void publish() {
+        List<CompletionTrie.Entry> entries = new ArrayList<>(titles.size());
+        titles.forEach((id, title) -> entries.add(new CompletionTrie.Entry(new Suggestion(id, title), normalize(title))));
+        entries.sort(Comparator
+                .comparingLong((CompletionTrie.Entry entry) -> -popularity.getOrDefault(entry.suggestion().id(), 0L))
+                .thenComparing(CompletionTrie.Entry::normalizedTitle)
+                .thenComparing(entry -> entry.suggestion().id()));
+        trie = CompletionTrie.build(entries, MAX_SUGGESTIONS);
+    }
+}
@@ -0,0 +1,29 @@
+package com.roomih.orderapi.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Неизменяемый principal, собранный из claims токена без обращения к базе.
+ */
+public record AuthenticatedUser(Long id, String email, String role) implements Principal {
+
+    private static final Map<String, List<GrantedAuthority>> AUTHORITIES_BY_ROLE = new ConcurrentHashMap<>();
+
+    public List<GrantedAuthority> authorities() {
+        if (role == null) {
+            return List.of();
+        }
+        return AUTHORITIES_BY_ROLE.computeIfAbsent(role, r -> List.of(new SimpleGrantedAuthority(r)));
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
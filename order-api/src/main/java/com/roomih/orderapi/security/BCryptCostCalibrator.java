@@ -0,0 +1,92 @@
+package com.roomih.orderapi.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Подбирает стоимость BCrypt под бюджет времени на один хеш на текущем железе.
+ * Замеряется дешёвая пробная стоимость, дальше каждая единица удваивает время.
+ * Явно заданная app.password-hashing.strength отключает замер.
+ */
+@Slf4j
+@Component
+public class BCryptCostCalibrator implements MeterBinder {
+
+    private static final int PROBE_STRENGTH = 8;
+    private static final int PROBE_RUNS = 5;
+
+    private final int strength;
+    private final double estimatedMillis;
+
+    public BCryptCostCalibrator(@Value("${app.password-hashing.strength:0}") int fixedStrength,
+                                @Value("${app.password-hashing.target-millis:100}") long targetMillis,
+                                @Value("${app.password-hashing.min-strength:10}") int minStrength,
+                                @Value("${app.password-hashing.max-strength:14}") int maxStrength) {
+        if (fixedStrength > 0) {
+            this.strength = fixedStrength;
+            this.estimatedMillis = Double.NaN;
+            log.info("BCrypt strength {} set by app.password-hashing.strength, calibration skipped", strength);
+            return;
+        }
+        double probeMillis = measure(PROBE_STRENGTH);
+        this.strength = choose(probeMillis, targetMillis, minStrength, maxStrength);
+        this.estimatedMillis = estimate(probeMillis, strength);
+        log.info("BCrypt strength {}: about {} ms per hash (target {} ms, probe at {} took {} ms)",
+                strength, Math.round(estimatedMillis), targetMillis, PROBE_STRENGTH, String.format("%.1f", probeMillis));
+    }
+
+    public int strength() {
+        return strength;
+    }
+
+    /**
+     * Наибольшая стоимость в [minStrength, maxStrength], укладывающаяся в бюджет.
+     * Если не укладывается даже минимальная, берётся минимальная.
+     */
+    static int choose(double probeMillis, long targetMillis, int minStrength, int maxStrength) {
+        int chosen = minStrength;
+        for (int candidate = minStrength + 1; candidate <= maxStrength; candidate++) {
+            if (estimate(probeMillis, candidate) > targetMillis) {
+                break;
+            }
+            chosen = candidate;
+        }
+        return chosen;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.password.bcrypt.strength", this, BCryptCostCalibrator::strength)
+                .description("BCrypt work factor used for new password hashes")
+                .register(registry);
+        Gauge.builder("auth.password.bcrypt.estimated", this, calibrator -> calibrator.estimatedMillis)
+                .description("Estimated time of one password hash at the chosen work factor")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    private static double estimate(double probeMillis, int strength) {
+        return probeMillis * Math.pow(2, strength - PROBE_STRENGTH);
+    }
+
+    // Медиана нескольких прогонов, первый — прогрев JIT
+    private static double measure(int strength) {
+        String salt = BCrypt.gensalt(strength);
+        BCrypt.hashpw("calibration", salt);
+        long[] runs = new long[PROBE_RUNS];
+        for (int i = 0; i < PROBE_RUNS; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            runs[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(runs);
+        return runs[PROBE_RUNS / 2] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,34 @@
+package com.roomih.orderapi.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt, который считает устаревшим хеш с меньшей стоимостью или с большей на две и более:
+ * при входе DaoAuthenticationProvider перехеширует пароль под текущую калибровку в обе стороны.
+ * Соседняя большая стоимость допускается, потому что замер шумит и после перезапуска
+ * или на другом экземпляре калибровка может выбрать на единицу больше, а хеши не должны
+ * переписываться туда и обратно при каждом входе.
+ */
+class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private final int strength;
+
+    CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // $2a$10$...: стоимость — две цифры после версии
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+            return false;
+        }
+        try {
+            int stored = Integer.parseInt(encodedPassword.substring(4, 6));
+            return stored < strength || stored > strength + 1;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
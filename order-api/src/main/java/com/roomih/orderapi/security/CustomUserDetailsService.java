@@ -2,6 +2,7 @@ package com.roomih.orderapi.security;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,7 +12,7 @@ import com.roomih.orderapi.repository.UserRepository;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -22,4 +23,13 @@ public class CustomUserDetailsService implements UserDetailsService {
                 String.format("Пользователь не найден с email: %s", email)));
         return new CustomUserDetails(user);
     }
+
+    // Вызывается DaoAuthenticationProvider после успешного входа, если хеш надо пересчитать
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = ((CustomUserDetails) userDetails).getUser();
+        userRepository.updatePassword(user.getId(), newPassword);
+        user.setPassword(newPassword);
+        return userDetails;
+    }
 }
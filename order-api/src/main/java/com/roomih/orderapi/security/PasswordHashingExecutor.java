@@ -0,0 +1,84 @@
+package com.roomih.orderapi.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.roomih.orderapi.exception.ServiceOverloadedException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Отдельный пул для входа и регистрации: BCrypt занимает процессор на десятки миллисекунд,
+ * и всплеск логинов не должен забирать потоки Tomcat у каталога. Потоков столько же, сколько ядер,
+ * очередь ограничена; когда она полна, запрос сразу получает 503 с Retry-After.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration retryAfter;
+    private final Timer queueWait;
+    private final Timer execution;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(MeterRegistry registry,
+                                   @Value("${app.auth-hashing.threads:0}") int threads,
+                                   @Value("${app.auth-hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${app.auth-hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("auth-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfter = Duration.ofSeconds(retryAfterSeconds);
+        // executor.queued, executor.active и т.д. с тегом name=auth.hashing
+        new ExecutorServiceMetrics(executor, "auth.hashing", Tags.empty()).bindTo(registry);
+        this.queueWait = Timer.builder("auth.hashing.wait")
+                .description("Time an authentication task spent in the queue")
+                .register(registry);
+        this.execution = Timer.builder("auth.hashing.duration")
+                .description("Time spent hashing or verifying a password")
+                .register(registry);
+        this.rejected = Counter.builder("auth.hashing.rejected")
+                .description("Authentication requests rejected because the hashing queue was full")
+                .register(registry);
+        log.info("Password hashing pool: {} threads, queue of {}", poolSize, queueCapacity);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    execution.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Слишком много запросов на вход, повторите попытку позже", retryAfter);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
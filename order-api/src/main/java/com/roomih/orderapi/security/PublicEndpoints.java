@@ -0,0 +1,52 @@
+package com.roomih.orderapi.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Маршруты с permitAll. Используются и в WebSecurityConfig, и в TokenAuthenticationFilter,
+ * чтобы на публичных запросах вообще не разбирать токен.
+ */
+public final class PublicEndpoints {
+
+    static final String[] ANY_METHOD = {
+            "/public/**", "/api/auth/**",
+            "/", "/error", "/csrf",
+            "/*.js", "/*.css", "/*.ico", "/*.png", "/*.html",
+            "/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**"
+    };
+
+    static final String[] GET_ONLY = {
+            "/api/publications/**", "/api/publications"
+    };
+
+    private static final AntPathRequestMatcher[] MATCHERS = buildMatchers();
+
+    private PublicEndpoints() {
+    }
+
+    public static boolean matches(HttpServletRequest request) {
+        for (AntPathRequestMatcher matcher : MATCHERS) {
+            if (matcher.matches(request)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static AntPathRequestMatcher[] buildMatchers() {
+        List<AntPathRequestMatcher> matchers = new ArrayList<>();
+        // GET каталога — самый частый запрос, проверяем его первым
+        for (String pattern : GET_ONLY) {
+            matchers.add(AntPathRequestMatcher.antMatcher(HttpMethod.GET, pattern));
+        }
+        for (String pattern : ANY_METHOD) {
+            matchers.add(AntPathRequestMatcher.antMatcher(pattern));
+        }
+        return matchers.toArray(new AntPathRequestMatcher[0]);
+    }
+}
@@ -0,0 +1,119 @@
+package com.roomih.orderapi.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.roomih.orderapi.exception.ErrorResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+/**
+ * Ограничивает частоту запросов к /api до разбора токена в TokenAuthenticationFilter.
+ * Клиент — пользователь из действительного токена, иначе IP. Лимиты задаются по группам маршрутов
+ * в app.rate-limit.groups, ответы несут заголовки RateLimit-*, отклонённые — 429 и Retry-After.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String TOKEN_PREFIX = "Bearer ";
+
+    // Порядок важен: первая подходящая группа
+    private static final Map<String, RequestMatcher> GROUPS = new LinkedHashMap<>();
+
+    static {
+        GROUPS.put("auth", antMatcher("/api/auth/**"));
+        GROUPS.put("checkout", new OrRequestMatcher(
+                antMatcher(HttpMethod.POST, "/api/subscriptions"),
+                antMatcher(HttpMethod.POST, "/api/subscriptions/create-from-cart"),
+                antMatcher("/api/cart/**")));
+        GROUPS.put("catalog", new OrRequestMatcher(
+                antMatcher(HttpMethod.GET, "/api/publications"),
+                antMatcher(HttpMethod.GET, "/api/publications/**")));
+        GROUPS.put("admin", new OrRequestMatcher(
+                antMatcher("/api/publications"),
+                antMatcher("/api/publications/**"),
+                antMatcher(HttpMethod.GET, "/api/users"),
+                antMatcher(HttpMethod.GET, "/api/users/{email:.+@.+}"),
+                antMatcher(HttpMethod.DELETE, "/api/users/*")));
+    }
+
+    private static final AntPathRequestMatcher API = antMatcher("/api/**");
+
+    private final RateLimiter rateLimiter;
+    private final TokenProvider tokenProvider;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimiter rateLimiter, TokenProvider tokenProvider, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.tokenProvider = tokenProvider;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !API.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(group(request), client(request));
+        RateLimiter.Policy policy = decision.policy();
+        response.setHeader("RateLimit-Policy", policy.capacity() + ";w=" + policy.windowSeconds());
+        response.setHeader("RateLimit-Limit", String.valueOf(policy.capacity()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+        if (decision.allowed()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too many requests",
+                "Слишком много запросов, повторите попытку позже"));
+    }
+
+    static String group(HttpServletRequest request) {
+        for (Map.Entry<String, RequestMatcher> group : GROUPS.entrySet()) {
+            if (group.getValue().matches(request)) {
+                return group.getKey();
+            }
+        }
+        return RateLimiter.DEFAULT_GROUP;
+    }
+
+    // Проверенный токен берётся из кэша TokenProvider, так что фильтр токенов потом не платит за него второй раз.
+    // Поддельный или просроченный токен не даёт собственного ведра — считается по IP
+    private String client(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(header) && header.startsWith(TOKEN_PREFIX)) {
+            Long userId = tokenProvider.validateTokenAndGetJws(header.substring(TOKEN_PREFIX.length()))
+                    .map(jws -> jws.getPayload().get(TokenProvider.USER_ID_CLAIM, Long.class))
+                    .orElse(null);
+            if (userId != null) {
+                return "user:" + userId;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
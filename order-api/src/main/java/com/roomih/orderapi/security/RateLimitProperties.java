@@ -0,0 +1,29 @@
+package com.roomih.orderapi.security;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.Map;
+
+/**
+ * Лимиты запросов по группам маршрутов (см. RateLimitFilter). capacity — размер всплеска,
+ * refillPerSecond — сколько запросов в секунду возвращается в ведро.
+ */
+@Validated
+@ConfigurationProperties("app.rate-limit")
+public record RateLimitProperties(boolean enabled,
+                                  @Positive long idleSeconds,
+                                  @Positive long maxKeys,
+                                  @NotEmpty Map<String, @Valid Limit> groups) {
+
+    public record Limit(@Positive long capacity, @Positive double refillPerSecond) {
+
+        // Время, за которое пустое ведро наполняется целиком
+        double refillSeconds() {
+            return capacity / refillPerSecond;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.roomih.orderapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket на каждого клиента и группу маршрутов. Состояние ведра — один long
+ * (теоретическое время прихода следующего запроса, алгоритм GCRA), меняется через CAS без блокировок.
+ * Вёдра живут в Caffeine: простаивающие удаляются, общее число ограничено.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    public static final String DEFAULT_GROUP = "default";
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final Map<String, Policy> policies = new HashMap<>();
+    private final Cache<Key, AtomicLong> buckets;
+    private final LongSupplier nanoClock;
+    private final MeterRegistry registry;
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, MeterRegistry registry) {
+        this(properties, registry, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, MeterRegistry registry, LongSupplier nanoClock) {
+        this.registry = registry;
+        this.nanoClock = nanoClock;
+        double longestRefill = 0;
+        for (Map.Entry<String, RateLimitProperties.Limit> group : properties.groups().entrySet()) {
+            policies.put(group.getKey(), new Policy(group.getValue()));
+            longestRefill = Math.max(longestRefill, group.getValue().refillSeconds());
+        }
+        if (!policies.containsKey(DEFAULT_GROUP)) {
+            throw new IllegalStateException("app.rate-limit.groups.default is required");
+        }
+        // Удалять раньше, чем ведро наполнится само, значит дарить клиенту запросы
+        long idleSeconds = Math.max(properties.idleSeconds(), (long) Math.ceil(longestRefill));
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofSeconds(idleSeconds))
+                .maximumSize(properties.maxKeys())
+                .build();
+        Gauge.builder("http.ratelimit.buckets", buckets, Cache::estimatedSize)
+                .description("Clients currently tracked by the rate limiter")
+                .register(registry);
+        log.info("Rate limits {}, idle buckets dropped after {} s", properties.groups(), idleSeconds);
+    }
+
+    public Decision tryAcquire(String group, String client) {
+        Policy policy = policies.getOrDefault(group, policies.get(DEFAULT_GROUP));
+        String groupName = policies.containsKey(group) ? group : DEFAULT_GROUP;
+        AtomicLong bucket = buckets.get(new Key(groupName, client), key -> new AtomicLong(EMPTY));
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long stored = bucket.get();
+            long start = stored == EMPTY || stored - now < 0 ? now : stored;
+            long next = start + policy.intervalNanos;
+            if (next - now > policy.burstNanos) {
+                registry.counter("http.ratelimit.throttled", "group", groupName).increment();
+                return new Decision(false, policy, 0, seconds(start - now), seconds(next - now - policy.burstNanos));
+            }
+            if (bucket.compareAndSet(stored, next)) {
+                long remaining = (policy.burstNanos - (next - now)) / policy.intervalNanos;
+                return new Decision(true, policy, remaining, seconds(next - now), 0);
+            }
+        }
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * remaining — сколько ещё запросов пройдёт прямо сейчас, resetSeconds — через сколько ведро
+     * снова будет полным, retryAfterSeconds — когда появится следующий запрос для отклонённого.
+     */
+    public record Decision(boolean allowed, Policy policy, long remaining, long resetSeconds, long retryAfterSeconds) {
+    }
+
+    public static final class Policy {
+
+        private final long capacity;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final long windowSeconds;
+
+        Policy(RateLimitProperties.Limit limit) {
+            this.capacity = limit.capacity();
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / limit.refillPerSecond());
+            this.burstNanos = capacity * intervalNanos;
+            this.windowSeconds = Math.max(1, Math.round(limit.refillSeconds()));
+        }
+
+        public long capacity() {
+            return capacity;
+        }
+
+        public long windowSeconds() {
+            return windowSeconds;
+        }
+    }
+
+    private record Key(String group, String client) {
+    }
+}
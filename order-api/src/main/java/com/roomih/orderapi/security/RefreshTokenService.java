@@ -0,0 +1,153 @@
+package com.roomih.orderapi.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.roomih.orderapi.dto.AuthResponse;
+import com.roomih.orderapi.event.TokensRevokedEvent;
+import com.roomih.orderapi.exception.InvalidRefreshTokenException;
+import com.roomih.orderapi.model.User;
+import com.roomih.orderapi.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ротация refresh-токенов. Токен — 32 случайных байта, в базе только его SHA-256,
+ * поэтому обновление стоит один хеш и пару коротких запросов вместо проверки BCrypt.
+ * Каждый токен обменивается один раз; повторное предъявление отзывает все токены пользователя
+ * через token_version, и фильтр узнаёт об этом из TokenVersionCache без запроса на каждый access-токен.
+ * Исключение — повтор в первые секунды после обмена: так выглядят две вкладки, обновившие токен
+ * одновременно, а не его кража, и такой повтор получает свою новую пару.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final TokenProvider tokenProvider;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry registry;
+    private final Duration ttl;
+    private final Duration reuseGrace;
+
+    public RefreshTokenService(JdbcTemplate jdbcTemplate,
+                               UserRepository userRepository,
+                               TokenProvider tokenProvider,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry registry,
+                               @Value("${app.jwt.refresh.expiration-days:30}") long ttlDays,
+                               @Value("${app.jwt.refresh.reuse-grace-seconds:10}") long reuseGraceSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.tokenProvider = tokenProvider;
+        this.eventPublisher = eventPublisher;
+        this.registry = registry;
+        this.ttl = Duration.ofDays(ttlDays);
+        this.reuseGrace = Duration.ofSeconds(reuseGraceSeconds);
+    }
+
+    @Transactional
+    public String issue(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        jdbcTemplate.update("""
+                INSERT INTO refresh_tokens (token_hash, user_id, token_version, expires_at)
+                VALUES (?, ?, ?, now() + ? * interval '1 second')
+                """, hash(token), user.getId(), user.getTokenVersion(), ttl.toSeconds());
+        return token;
+    }
+
+    /**
+     * Обменивает refresh-токен на новую пару. Отзыв при повторном предъявлении
+     * фиксируется, несмотря на исключение.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public AuthResponse rotate(String refreshToken) {
+        byte[] tokenHash = hash(refreshToken);
+        // Условный UPDATE: из двух параллельных обменов одного токена пройдёт только один
+        List<long[]> consumed = jdbcTemplate.query("""
+                UPDATE refresh_tokens SET used_at = now()
+                WHERE token_hash = ? AND used_at IS NULL AND expires_at > now()
+                RETURNING user_id, token_version
+                """, (rs, rowNum) -> new long[]{rs.getLong("user_id"), rs.getInt("token_version")}, tokenHash);
+        String outcome = "rotated";
+        if (consumed.isEmpty()) {
+            List<Reuse> reused = jdbcTemplate.query("""
+                    SELECT user_id, token_version,
+                           used_at > now() - ? * interval '1 second' AND expires_at > now() AS in_grace
+                    FROM refresh_tokens WHERE token_hash = ? AND used_at IS NOT NULL
+                    """, (rs, rowNum) -> new Reuse(rs.getLong("user_id"), rs.getInt("token_version"), rs.getBoolean("in_grace")),
+                    reuseGrace.toSeconds(), tokenHash);
+            if (reused.isEmpty()) {
+                throw invalid("invalid", "Refresh-токен недействителен или истёк");
+            }
+            if (!reused.get(0).inGrace()) {
+                revokeAll(reused.get(0).userId());
+                throw invalid("reused", "Refresh-токен уже был использован, войдите заново");
+            }
+            consumed = List.of(new long[]{reused.get(0).userId(), reused.get(0).tokenVersion()});
+            outcome = "concurrent";
+        }
+
+        long userId = consumed.get(0)[0];
+        int tokenVersion = (int) consumed.get(0)[1];
+        User user = userRepository.findById(userId).orElse(null);
+        // Смена пароля или отзыв токенов после выдачи
+        if (user == null || user.getTokenVersion() != tokenVersion) {
+            throw invalid("revoked", "Refresh-токен отозван, войдите заново");
+        }
+        registry.counter("auth.refresh", "outcome", outcome).increment();
+        return new AuthResponse(tokenProvider.generate(user), issue(user));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.refresh.cleanup-interval-seconds:3600}",
+            initialDelayString = "${app.jwt.refresh.cleanup-interval-seconds:3600}",
+            timeUnit = TimeUnit.SECONDS)
+    public void deleteExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM refresh_tokens WHERE expires_at <= now()");
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private void revokeAll(Long userId) {
+        log.warn("Refresh token reuse for user {}, revoking all tokens", userId);
+        jdbcTemplate.update("UPDATE users SET token_version = token_version + 1 WHERE id = ?", userId);
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id = ?", userId);
+        eventPublisher.publishEvent(new TokensRevokedEvent(userId));
+    }
+
+    private InvalidRefreshTokenException invalid(String outcome, String message) {
+        registry.counter("auth.refresh", "outcome", outcome).increment();
+        return new InvalidRefreshTokenException(message);
+    }
+
+    private record Reuse(long userId, int tokenVersion, boolean inGrace) {
+    }
+
+    private static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -9,8 +9,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -25,13 +23,20 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
 
     private static final String TOKEN_HEADER = "Authorization";
     private static final String TOKEN_PREFIX = "Bearer ";
+    private static final WebAuthenticationDetailsSource DETAILS_SOURCE = new WebAuthenticationDetailsSource();
 
-    private final UserDetailsService userDetailsService;
     private final TokenProvider tokenProvider;
+    private final TokenVersionCache tokenVersionCache;
 
-    public TokenAuthenticationFilter(UserDetailsService userDetailsService, TokenProvider tokenProvider) {
-        this.userDetailsService = userDetailsService;
+    public TokenAuthenticationFilter(TokenProvider tokenProvider, TokenVersionCache tokenVersionCache) {
         this.tokenProvider = tokenProvider;
+        this.tokenVersionCache = tokenVersionCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // На permitAll-маршрутах аутентификация не нужна — токен не разбираем
+        return PublicEndpoints.matches(request);
     }
 
     @Override
@@ -41,15 +46,14 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
             if (token.isPresent()) {
                 Optional<Jws<Claims>> jwsClaims = tokenProvider.validateTokenAndGetJws(token.get());
                 if (jwsClaims.isPresent()) {
-                    Claims claims = jwsClaims.get().getPayload();
-                    String username = claims.getSubject();
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()
-                    );
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    Optional<AuthenticatedUser> principal = toPrincipal(jwsClaims.get().getPayload());
+                    if (principal.isPresent()) {
+                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                                principal.get(), null, principal.get().authorities()
+                        );
+                        authentication.setDetails(DETAILS_SOURCE.buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                    }
                 }
             }
             chain.doFilter(request, response);
@@ -60,6 +64,21 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    private Optional<AuthenticatedUser> toPrincipal(Claims claims) {
+        Long userId = claims.get(TokenProvider.USER_ID_CLAIM, Long.class);
+        Integer tokenVersion = claims.get(TokenProvider.TOKEN_VERSION_CLAIM, Integer.class);
+        if (userId == null || tokenVersion == null) {
+            log.debug("Token without user id or version claims for subject {}", claims.getSubject());
+            return Optional.empty();
+        }
+        if (!tokenVersionCache.isCurrent(userId, tokenVersion)) {
+            log.debug("Revoked token for user {}", userId);
+            return Optional.empty();
+        }
+        return Optional.of(new AuthenticatedUser(userId, claims.getSubject(),
+                claims.get(TokenProvider.ROLE_CLAIM, String.class)));
+    }
+
     private Optional<String> resolveToken(HttpServletRequest request) {
         String bearerToken = request.getHeader(TOKEN_HEADER);
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith(TOKEN_PREFIX)) {
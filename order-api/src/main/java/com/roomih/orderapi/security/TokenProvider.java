@@ -1,37 +1,75 @@
 package com.roomih.orderapi.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import com.roomih.orderapi.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
 @Slf4j
 @Component
-public class TokenProvider {
+public class TokenProvider implements MeterBinder {
+
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    // Короткий срок: дальше клиент получает новый токен через /api/auth/refresh, а не паролем
+    private final Duration expiration;
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    // Уже проверенные токены по SHA-256 от строки токена, живут до своего exp
+    private final Cache<String, Jws<Claims>> verifiedTokens;
 
-    private static final long JWT_EXPIRATION = 86400000; // 24 часа в миллисекундах
+    public TokenProvider(@Value("${app.jwt.secret}") String jwtSecret,
+                         @Value("${app.jwt.expiration.minutes:15}") long expirationMinutes,
+                         @Value("${app.security.token-cache.max-size:10000}") long tokenCacheSize) {
+        this.key = new SecretKeySpec(jwtSecret.getBytes(), "HmacSHA256");
+        this.expiration = Duration.ofMinutes(expirationMinutes);
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+    }
 
     public String generate(Authentication authentication) {
-        CustomUserDetails user = (CustomUserDetails) authentication.getPrincipal();
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + JWT_EXPIRATION);
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        return generate(userDetails.getUser());
+    }
 
-        byte[] keyBytes = jwtSecret.getBytes();
-        SecretKey key = new SecretKeySpec(keyBytes, "HmacSHA256");
+    public String generate(User user) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + expiration.toMillis());
 
         return Jwts.builder()
-                .claim("sub", user.getUsername())
+                .claim("sub", user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLE_CLAIM, user.getRole())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
                 .claim("iat", now)
                 .claim("exp", expiryDate)
                 .signWith(key)
@@ -39,15 +77,16 @@ public class TokenProvider {
     }
 
     public Optional<Jws<Claims>> validateTokenAndGetJws(String token) {
+        String digest = digest(token);
+        Jws<Claims> cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
-            byte[] keyBytes = jwtSecret.getBytes();
-            SecretKey key = new SecretKeySpec(keyBytes, "HmacSHA256");
-
-            Jws<Claims> jws = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-
+            Jws<Claims> jws = parser.parseSignedClaims(token);
+            if (jws.getPayload().getExpiration() != null) {
+                verifiedTokens.put(digest, jws);
+            }
             return Optional.of(jws);
         } catch (SignatureException ex) {
             log.error("Invalid JWT signature");
@@ -62,4 +101,37 @@ public class TokenProvider {
         }
         return Optional.empty();
     }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verifiedTokens, "verifiedTokens");
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class UntilTokenExpiry implements Expiry<String, Jws<Claims>> {
+
+        @Override
+        public long expireAfterCreate(String key, Jws<Claims> jws, long currentTime) {
+            long millisLeft = jws.getPayload().getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jws<Claims> jws, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jws<Claims> jws, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.roomih.orderapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.roomih.orderapi.event.TokensRevokedEvent;
+import com.roomih.orderapi.repository.UserRepository;
+
+import java.time.Duration;
+
+/**
+ * Кэш текущей версии токенов пользователя. Токен с устаревшей версией
+ * считается отозванным, при этом фильтру не нужно ходить в базу на каждый запрос.
+ */
+@Component
+public class TokenVersionCache implements MeterBinder {
+
+    // Удалённый пользователь тоже кэшируется, иначе каждый запрос с его токеном шёл бы в базу.
+    // Версии начинаются с нуля и только растут, так что -1 ни с одной не совпадёт.
+    private static final int GONE = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Integer> cache;
+
+    public TokenVersionCache(UserRepository userRepository,
+                             @Value("${app.security.token-version-cache.max-size:10000}") long maxSize,
+                             @Value("${app.security.token-version-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Возвращает актуальную версию токенов или null, если пользователя больше нет.
+     */
+    public Integer currentVersion(Long userId) {
+        int version = cache.get(userId, id -> userRepository.findTokenVersionById(id).orElse(GONE));
+        return version == GONE ? null : version;
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer current = currentVersion(userId);
+        return current != null && current == tokenVersion;
+    }
+
+    public void evict(Long userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTokensRevoked(TokensRevokedEvent event) {
+        evict(event.userId());
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "tokenVersions");
+    }
+}
@@ -1,8 +1,10 @@
 package com.roomih.orderapi.security;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -16,7 +18,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
@@ -27,18 +29,27 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.roomih.orderapi.repository.UserRepository;
 
-import org.springframework.security.core.userdetails.UserDetailsService;
-
 import java.util.Arrays;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 @RequiredArgsConstructor
 public class WebSecurityConfig {
 
     private final UserRepository userRepository;
     private final TokenProvider tokenProvider;
+    private final TokenVersionCache tokenVersionCache;
+    private final BCryptCostCalibrator bCryptCostCalibrator;
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties rateLimitProperties;
+    private final ObjectMapper objectMapper;
+
+    private static final String BCRYPT_ID = "bcrypt";
+    // Роль хранится без префикса, у старых записей может быть ROLE_
+    private static final String[] ADMIN_AUTHORITIES = {"ADMIN", "ROLE_ADMIN"};
 
     private static final Logger log = LoggerFactory.getLogger(WebSecurityConfig.class);
 
@@ -50,14 +61,13 @@ public class WebSecurityConfig {
     @Bean(name = "customSecurityFilterChain")
     @Primary
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        return http
+        http
                 .authorizeHttpRequests(authorizeHttpRequests -> authorizeHttpRequests
-                        .requestMatchers("/public/**", "/api/auth/**").permitAll()
-                        .requestMatchers("/", "/error", "/csrf").permitAll()
-                        .requestMatchers("/*.js", "/*.css", "/*.ico", "/*.png", "/*.html").permitAll()
-                        .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/publications/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/publications").permitAll()
+                        .requestMatchers(PublicEndpoints.ANY_METHOD).permitAll()
+                        .requestMatchers(HttpMethod.GET, PublicEndpoints.GET_ONLY).permitAll()
+                        // Метрики раскрывают кэши, токены и трафик — только администраторам
+                        .requestMatchers("/actuator/health", "/actuator/health/**").authenticated()
+                        .requestMatchers("/actuator/**").hasAnyAuthority(ADMIN_AUTHORITIES)
                         .anyRequest().authenticated())
                 .addFilterBefore(tokenAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
                 .exceptionHandling(exceptionHandling -> exceptionHandling
@@ -65,32 +75,42 @@ public class WebSecurityConfig {
                 .sessionManagement(sessionManagement -> 
                     sessionManagement.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
-                .csrf(AbstractHttpConfigurer::disable)
-                .build();
+                .csrf(AbstractHttpConfigurer::disable);
+        if (rateLimitProperties.enabled()) {
+            // Раньше токен-фильтра: отклонённый запрос не тратит время на токен и базу
+            http.addFilterBefore(new RateLimitFilter(rateLimiter, tokenProvider, objectMapper),
+                    TokenAuthenticationFilter.class);
+        }
+        return http.build();
     }
 
     @Bean
     public TokenAuthenticationFilter tokenAuthenticationFilter() {
-        return new TokenAuthenticationFilter(userDetailsService(), tokenProvider);
+        return new TokenAuthenticationFilter(tokenProvider, tokenVersionCache);
     }
 
+    // Хеш хранится как {bcrypt}$2a$<стоимость>$..., старые хеши без префикса тоже принимаются
     @Bean
     public PasswordEncoder passwordEncoder() {
-        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(10);
-        log.debug("Created BCryptPasswordEncoder with strength 10");
+        PasswordEncoder bcrypt = new CalibratedBCryptPasswordEncoder(bCryptCostCalibrator.strength());
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        log.debug("Created password encoder with BCrypt strength {}", bCryptCostCalibrator.strength());
         return encoder;
     }
 
+    // При успешном входе хеш с другой стоимостью или без префикса перезаписывается
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
+        authProvider.setUserDetailsPasswordService(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
         return authProvider;
     }
 
     @Bean
-    public UserDetailsService userDetailsService() {
+    public CustomUserDetailsService userDetailsService() {
         return new CustomUserDetailsService(userRepository);
     }
 
@@ -103,8 +123,9 @@ public class WebSecurityConfig {
             "http://127.0.0.1:3000"
         ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token"));
-        configuration.setExposedHeaders(Arrays.asList("x-auth-token"));
+        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token", "idempotency-key"));
+        configuration.setExposedHeaders(Arrays.asList("x-auth-token", "idempotent-replayed", "retry-after",
+                "ratelimit-policy", "ratelimit-limit", "ratelimit-remaining", "ratelimit-reset"));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,61 @@
+package com.roomih.orderapi.service;
+
+import com.roomih.orderapi.dto.CatalogOrder;
+import com.roomih.orderapi.dto.PublicationSummary;
+import com.roomih.orderapi.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в каталоге: ключ сортировки и id крайней записи страницы.
+ * backward = true означает «записи до этой позиции».
+ */
+public record CatalogCursor(CatalogOrder order, boolean backward, long id, String key) {
+
+    public static CatalogCursor after(CatalogOrder order, PublicationSummary last) {
+        return new CatalogCursor(order, false, last.id(), keyOf(order, last));
+    }
+
+    public static CatalogCursor before(CatalogOrder order, PublicationSummary first) {
+        return new CatalogCursor(order, true, first.id(), keyOf(order, first));
+    }
+
+    public LocalDateTime createdAt() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Некорректный курсор");
+        }
+    }
+
+    public String encode() {
+        String raw = order.name() + "|" + (backward ? "b" : "a") + "|" + id + "|" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CatalogCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // заголовок может содержать '|', поэтому ключ идёт последним
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !(parts[1].equals("a") || parts[1].equals("b"))) {
+                throw new InvalidCursorException("Некорректный курсор");
+            }
+            CatalogCursor decoded = new CatalogCursor(CatalogOrder.valueOf(parts[0]), parts[1].equals("b"),
+                    Long.parseLong(parts[2]), parts[3]);
+            if (decoded.order() == CatalogOrder.NEWEST) {
+                decoded.createdAt();
+            }
+            return decoded;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Некорректный курсор");
+        }
+    }
+
+    private static String keyOf(CatalogOrder order, PublicationSummary summary) {
+        return order == CatalogOrder.NEWEST ? summary.createdAt().toString() : summary.title();
+    }
+}
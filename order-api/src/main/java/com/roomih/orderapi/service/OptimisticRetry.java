@@ -0,0 +1,78 @@
+package com.roomih.orderapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет чтение-изменение-запись в отдельной транзакции и повторяет её целиком,
+ * если версия сущности успела измениться. Повторов не больше max-attempts, после этого
+ * конфликт уходит клиенту как 409. Конфликты считаются по имени операции.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry registry;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OptimisticRetry(TransactionTemplate transactionTemplate,
+                           MeterRegistry registry,
+                           @Value("${app.optimistic-retry.max-attempts:3}") int maxAttempts,
+                           @Value("${app.optimistic-retry.backoff-millis:10}") long backoffMillis) {
+        this.transactionTemplate = transactionTemplate;
+        this.registry = registry;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        // Внутри чужой транзакции повторить нечего: конфликт всплывёт при её коммите
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                registry.counter("optimistic.lock.conflicts", "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    registry.counter("optimistic.lock.exhausted", "operation", operation).increment();
+                    log.warn("Optimistic lock conflict in {} after {} attempts", operation, attempt);
+                    throw e;
+                }
+                log.debug("Optimistic lock conflict in {}, attempt {}", operation, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Случайная пауза, чтобы столкнувшиеся запросы не повторили попытку одновременно
+    private void backoff(int attempt) {
+        if (backoffMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis * attempt) + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Прервано ожидание повтора", e);
+        }
+    }
+}
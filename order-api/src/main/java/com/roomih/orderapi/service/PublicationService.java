@@ -3,15 +3,24 @@ package com.roomih.orderapi.service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import com.roomih.orderapi.dto.CatalogFilter;
+import com.roomih.orderapi.dto.CatalogOrder;
+import com.roomih.orderapi.dto.CursorPage;
+import com.roomih.orderapi.dto.FacetedPage;
+import com.roomih.orderapi.dto.PublicationContent;
+import com.roomih.orderapi.dto.PublicationDocument;
+import com.roomih.orderapi.dto.PublicationSummary;
+import com.roomih.orderapi.dto.SearchHit;
 import com.roomih.orderapi.model.Publication;
 
-import java.util.List;
-
 public interface PublicationService {
-    List<Publication> getAllPublications();
-    Publication getPublicationById(Long id);
+    PublicationDocument getPublicationById(Long id);
     Publication createPublication(Publication publication);
     Publication updatePublication(Long id, Publication publication);
     void deletePublication(Long id);
-    Page<Publication> findPublications(String searchQuery, Pageable pageable);
+    FacetedPage<PublicationSummary> filterCatalog(CatalogFilter filter, Pageable pageable);
+    Page<SearchHit> searchPublications(String query, Pageable pageable);
+    PublicationContent getPublicationContent(Long id);
+    CursorPage<PublicationSummary> scrollPublications(String searchQuery, CatalogOrder order, String cursor,
+                                                      int size, boolean includeTotal);
 }
@@ -0,0 +1,154 @@
+package com.roomih.orderapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.roomih.orderapi.event.SubscriptionChangedEvent;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Деактивирует подписки с наступившей датой окончания. Работает порциями: каждая порция —
+ * один UPDATE в своей короткой транзакции, строки берутся через FOR UPDATE SKIP LOCKED.
+ * Поэтому несколько потоков (и несколько экземпляров приложения) не мешают друг другу,
+ * а оформление подписок ждёт блокировку не дольше одной порции. Версия строки поднимается,
+ * чтобы параллельное изменение подписки через JPA не вернуло ей active = true.
+ */
+@Slf4j
+@Component
+public class SubscriptionExpiryJob {
+
+    private static final String EXPIRE_CHUNK = """
+            UPDATE subscriptions s SET active = false, version = s.version + 1
+            WHERE s.id IN (
+                SELECT id FROM subscriptions
+                WHERE active AND end_date <= ?
+                ORDER BY end_date
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING s.user_id, s.publication_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int workers;
+    private final TimeZone jdbcTimeZone;
+    private final ExecutorService executor;
+
+    private final Counter expired;
+    private final Counter chunks;
+    private final Timer runs;
+
+    public SubscriptionExpiryJob(JdbcTemplate jdbcTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry registry,
+                                 @Value("${app.subscription-expiry.chunk-size:500}") int chunkSize,
+                                 @Value("${app.subscription-expiry.workers:2}") int workers,
+                                 @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String jdbcTimeZone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+        // Даты подписок пишет Hibernate в этом поясе, граница переводится так же
+        this.jdbcTimeZone = jdbcTimeZone.isBlank() ? TimeZone.getDefault() : TimeZone.getTimeZone(jdbcTimeZone);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers,
+                task -> new Thread(task, "subscription-expiry-" + threads.incrementAndGet()));
+        this.expired = Counter.builder("subscriptions.expiry.expired")
+                .description("Subscriptions deactivated after their end date")
+                .register(registry);
+        this.chunks = Counter.builder("subscriptions.expiry.chunks")
+                .description("Expiry chunks committed")
+                .register(registry);
+        this.runs = Timer.builder("subscriptions.expiry.runs")
+                .description("Time to drain expired subscriptions")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.subscription-expiry.interval-seconds:60}",
+            initialDelayString = "${app.subscription-expiry.interval-seconds:60}",
+            timeUnit = TimeUnit.SECONDS)
+    public void expireScheduled() {
+        int count = expire(LocalDateTime.now());
+        if (count > 0) {
+            log.info("Expired {} subscriptions", count);
+        }
+    }
+
+    /**
+     * Деактивирует все активные подписки с датой окончания не позже cutoff.
+     * Возвращает число деактивированных строк.
+     */
+    public int expire(LocalDateTime cutoff) {
+        return runs.record(() -> {
+            Timestamp until = Timestamp.valueOf(cutoff);
+            List<Future<Integer>> results = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                results.add(executor.submit(() -> drain(until)));
+            }
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += await(result);
+            }
+            return total;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Каждый поток берёт порции, пока не получит неполную: строки, занятые соседями, он пропускает
+    private int drain(Timestamp until) {
+        int total = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<SubscriptionChangedEvent> chunk = jdbcTemplate.query(EXPIRE_CHUNK,
+                    ps -> {
+                        ps.setTimestamp(1, until, Calendar.getInstance(jdbcTimeZone));
+                        ps.setInt(2, chunkSize);
+                    },
+                    (rs, rowNum) -> new SubscriptionChangedEvent(rs.getLong("user_id"), rs.getLong("publication_id"), null));
+            chunks.increment();
+            expired.increment(chunk.size());
+            chunk.forEach(eventPublisher::publishEvent);
+            total += chunk.size();
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private static int await(Future<Integer> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            log.error("Subscription expiry worker failed", e.getCause());
+            return 0;
+        }
+    }
+}
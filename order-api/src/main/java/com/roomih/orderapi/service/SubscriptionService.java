@@ -1,17 +1,20 @@
 package com.roomih.orderapi.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import com.roomih.orderapi.dto.EntitlementStatus;
 import com.roomih.orderapi.dto.SubscriptionRequest;
 import com.roomih.orderapi.model.Subscription;
-import com.roomih.orderapi.model.User;
 
 public interface SubscriptionService {
-    Subscription createSubscription(User user, SubscriptionRequest request);
-    List<Subscription> getUserSubscriptions(User user);
-    List<Subscription> getActiveSubscriptions(User user);
-    void cancelSubscription(User user, Long subscriptionId);
-    List<Subscription> createSubscriptionsFromCartRequests(User user, List<SubscriptionRequest> requests);
-    Subscription updateSubscriptionPeriod(User user, Long subscriptionId, Integer newPeriod);
-    Subscription findActiveSubscriptionForPublication(User user, Long publicationId);
+    Subscription createSubscription(Long userId, SubscriptionRequest request);
+    List<Subscription> getUserSubscriptions(Long userId);
+    List<Subscription> getActiveSubscriptions(Long userId);
+    void cancelSubscription(Long userId, Long subscriptionId);
+    List<Subscription> createSubscriptionsFromCartRequests(Long userId, List<SubscriptionRequest> requests);
+    Subscription updateSubscriptionPeriod(Long userId, Long subscriptionId, Integer newPeriod);
+    EntitlementStatus checkEntitlement(Long userId, Long publicationId);
+    Map<Long, EntitlementStatus> checkEntitlements(Long userId, Collection<Long> publicationIds);
 }
@@ -8,6 +8,8 @@ public interface UserService {
     List<User> getUsers();
     
     User validateAndGetUserByEmail(String email);
+
+    User getUserById(Long id);
     
     boolean hasUserWithEmail(String email);
     
@@ -18,6 +20,8 @@ public interface UserService {
     boolean checkPassword(User user, String password);
     
     void changeUserPassword(User user, String newPassword);
+
+    void revokeTokens(User user);
     
     User updateUserProfile(User user, String name, String address, String city, 
                          String postalCode, String phoneNumber);
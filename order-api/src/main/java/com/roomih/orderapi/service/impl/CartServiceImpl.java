@@ -2,34 +2,40 @@ package com.roomih.orderapi.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import com.roomih.orderapi.exception.UserNotFoundException;
 import com.roomih.orderapi.model.Cart;
-import com.roomih.orderapi.model.User;
 import com.roomih.orderapi.repository.CartRepository;
+import com.roomih.orderapi.repository.UserRepository;
 import com.roomih.orderapi.service.CartService;
+import com.roomih.orderapi.service.OptimisticRetry;
 
 @Service
 @RequiredArgsConstructor
 public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
+    private final UserRepository userRepository;
+    private final OptimisticRetry optimisticRetry;
 
     @Override
-    public Cart getCartByUser(User user) {
-        return cartRepository.findByUser(user)
+    public Cart getCartByUserId(Long userId) {
+        return cartRepository.findByUserId(userId)
                 .orElseGet(() -> {
                     Cart cart = new Cart();
-                    cart.setUser(user);
+                    cart.setUser(userRepository.findById(userId)
+                            .orElseThrow(() -> new UserNotFoundException("Пользователь не найден")));
                     return cartRepository.save(cart);
                 });
     }
 
     @Override
-    @Transactional
-    public void clearCart(User user) {
-        Cart cart = getCartByUser(user);
-        cart.getItems().clear();
-        cartRepository.save(cart);
+    public void clearCart(Long userId) {
+        optimisticRetry.run("cart.clear", () -> {
+            Cart cart = cartRepository.findForUpdateByUserId(userId)
+                    .orElseGet(() -> getCartByUserId(userId));
+            cart.getItems().clear();
+            cartRepository.save(cart);
+        });
     }
 } 
\ No newline at end of file
@@ -1,65 +1,191 @@
 package com.roomih.orderapi.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.roomih.orderapi.dto.CatalogFilter;
+import com.roomih.orderapi.dto.CatalogOrder;
+import com.roomih.orderapi.dto.CursorPage;
+import com.roomih.orderapi.dto.FacetedPage;
+import com.roomih.orderapi.dto.PublicationContent;
+import com.roomih.orderapi.dto.PublicationDocument;
+import com.roomih.orderapi.dto.PublicationSummary;
+import com.roomih.orderapi.dto.SearchHit;
+import com.roomih.orderapi.event.PublicationChangedEvent;
 import com.roomih.orderapi.exception.ResourceNotFoundException;
 import com.roomih.orderapi.model.Publication;
 import com.roomih.orderapi.repository.PublicationRepository;
+import com.roomih.orderapi.search.CatalogFacetIndex;
+import com.roomih.orderapi.search.PublicationSearchIndex;
+import com.roomih.orderapi.service.CatalogCursor;
+import com.roomih.orderapi.service.OptimisticRetry;
 import com.roomih.orderapi.service.PublicationService;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import static com.roomih.orderapi.config.CacheConfig.PUBLICATIONS;
+
 @Service
 @RequiredArgsConstructor
 public class PublicationServiceImpl implements PublicationService {
 
     private final PublicationRepository publicationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PublicationSearchIndex searchIndex;
+    private final CatalogFacetIndex facetIndex;
+    private final OptimisticRetry optimisticRetry;
 
     @Override
-    public List<Publication> getAllPublications() {
-        return publicationRepository.findAll();
-    }
-
-    @Override
-    public Publication getPublicationById(Long id) {
-        return publicationRepository.findById(id)
+    // В кэше лежит неизменяемая запись, а не сущность: изменить общий экземпляр вызывающий не сможет
+    @Cacheable(cacheNames = PUBLICATIONS, key = "#id")
+    public PublicationDocument getPublicationById(Long id) {
+        return publicationRepository.findDocumentById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Publication not found with id: " + id));
     }
 
     @Override
     @Transactional
     public Publication createPublication(Publication publication) {
-        return publicationRepository.save(publication);
+        // "createdAt": null в запросе не должен ломать курсор каталога
+        if (publication.getCreatedAt() == null) {
+            publication.setCreatedAt(LocalDateTime.now());
+        }
+        Publication saved = publicationRepository.save(publication);
+        eventPublisher.publishEvent(PublicationChangedEvent.created(saved));
+        return saved;
     }
 
     @Override
-    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = PUBLICATIONS, key = "#id"),
+            @CacheEvict(cacheNames = PUBLICATIONS, key = "'content:' + #id")
+    })
     public Publication updatePublication(Long id, Publication publication) {
-        Publication existingPublication = getPublicationById(id);
-        
-        existingPublication.setTitle(publication.getTitle());
-        existingPublication.setDescription(publication.getDescription());
-        existingPublication.setPricePerMonth(publication.getPricePerMonth());
-        
-        return publicationRepository.save(existingPublication);
+        return optimisticRetry.execute("publication.update", () -> {
+            Publication existingPublication = findPublication(id);
+
+            existingPublication.setTitle(publication.getTitle());
+            existingPublication.setDescription(publication.getDescription());
+            existingPublication.setPricePerMonth(publication.getPricePerMonth());
+
+            Publication saved = publicationRepository.save(existingPublication);
+            eventPublisher.publishEvent(PublicationChangedEvent.updated(saved));
+            return saved;
+        });
     }
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = PUBLICATIONS, key = "#id"),
+            @CacheEvict(cacheNames = PUBLICATIONS, key = "'content:' + #id")
+    })
     public void deletePublication(Long id) {
-        Publication publication = getPublicationById(id);
+        Publication publication = findPublication(id);
         publicationRepository.delete(publication);
+        eventPublisher.publishEvent(PublicationChangedEvent.deleted(id));
+    }
+
+    @Override
+    public FacetedPage<PublicationSummary> filterCatalog(CatalogFilter filter, Pageable pageable) {
+        // Фильтры накладываются поверх полнотекстового поиска, порядок по релевантности сохраняется
+        long[] rankedIds = filter.hasSearchQuery() && searchIndex.isReady()
+                ? searchIndex.rankedIds(filter.searchQuery()) : null;
+        return facetIndex.query(filter, rankedIds, pageable);
+    }
+
+    @Override
+    public Page<SearchHit> searchPublications(String query, Pageable pageable) {
+        if (searchIndex.isReady()) {
+            return searchIndex.search(query, pageable);
+        }
+        // Индекс ещё строится — отвечаем старым поиском по заголовку
+        return publicationRepository.findSummariesByTitleContaining(query, pageable)
+                .map(summary -> new SearchHit(summary, 0f, null));
     }
 
     @Override
-    public Page<Publication> findPublications(String searchQuery, Pageable pageable) {
-        if (searchQuery != null && !searchQuery.isEmpty()) {
-            return publicationRepository.findByTitleContainingIgnoreCase(searchQuery, pageable);
+    @Cacheable(cacheNames = PUBLICATIONS, key = "'content:' + #id")
+    public PublicationContent getPublicationContent(Long id) {
+        return publicationRepository.findContentById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Publication not found with id: " + id));
+    }
+
+    @Override
+    public CursorPage<PublicationSummary> scrollPublications(String searchQuery, CatalogOrder order, String cursor,
+                                                             int size, boolean includeTotal) {
+        // Без поиска запросы идут без фильтра по названию
+        String title = searchQuery == null || searchQuery.isBlank() ? null : searchQuery;
+        CatalogCursor position = cursor == null || cursor.isEmpty() ? null : CatalogCursor.decode(cursor);
+        // Курсор помнит порядок, в котором был выдан
+        CatalogOrder effectiveOrder = position != null ? position.order() : order;
+        boolean backward = position != null && position.backward();
+
+        // Берём на одну запись больше, чтобы понять, есть ли продолжение
+        List<PublicationSummary> rows = new ArrayList<>(fetchRows(title, effectiveOrder, position, Limit.of(size + 1)));
+        boolean more = rows.size() > size;
+        if (more) {
+            rows.remove(rows.size() - 1);
+        }
+        if (backward) {
+            Collections.reverse(rows);
+        }
+
+        boolean hasNext = backward || more;
+        boolean hasPrevious = backward ? more : position != null;
+        String nextCursor = hasNext && !rows.isEmpty()
+                ? CatalogCursor.after(effectiveOrder, rows.get(rows.size() - 1)).encode() : null;
+        String prevCursor = hasPrevious && !rows.isEmpty()
+                ? CatalogCursor.before(effectiveOrder, rows.get(0)).encode() : null;
+        Long total = !includeTotal ? null
+                : title == null ? publicationRepository.count() : publicationRepository.countByTitleContaining(title);
+        return new CursorPage<>(rows, nextCursor, prevCursor, total);
+    }
+
+    private Publication findPublication(Long id) {
+        return publicationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Publication not found with id: " + id));
+    }
+
+    private List<PublicationSummary> fetchRows(String title, CatalogOrder order, CatalogCursor position, Limit limit) {
+        if (order == CatalogOrder.TITLE) {
+            if (position == null) {
+                return title == null
+                        ? publicationRepository.findSummariesOrderedByTitle(limit)
+                        : publicationRepository.findSummariesOrderedByTitle(title, limit);
+            }
+            if (position.backward()) {
+                return title == null
+                        ? publicationRepository.findSummariesOrderedByTitleBefore(position.key(), position.id(), limit)
+                        : publicationRepository.findSummariesOrderedByTitleBefore(title, position.key(), position.id(), limit);
+            }
+            return title == null
+                    ? publicationRepository.findSummariesOrderedByTitleAfter(position.key(), position.id(), limit)
+                    : publicationRepository.findSummariesOrderedByTitleAfter(title, position.key(), position.id(), limit);
+        }
+        if (position == null) {
+            return title == null
+                    ? publicationRepository.findNewestSummaries(limit)
+                    : publicationRepository.findNewestSummaries(title, limit);
+        }
+        if (position.backward()) {
+            return title == null
+                    ? publicationRepository.findNewestSummariesBefore(position.createdAt(), position.id(), limit)
+                    : publicationRepository.findNewestSummariesBefore(title, position.createdAt(), position.id(), limit);
         }
-        return publicationRepository.findAll(pageable);
+        return title == null
+                ? publicationRepository.findNewestSummariesAfter(position.createdAt(), position.id(), limit)
+                : publicationRepository.findNewestSummariesAfter(title, position.createdAt(), position.id(), limit);
     }
-} 
\ No newline at end of file
+}
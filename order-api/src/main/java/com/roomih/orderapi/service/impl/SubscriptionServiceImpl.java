@@ -1,47 +1,57 @@
 package com.roomih.orderapi.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.roomih.orderapi.dto.EntitlementStatus;
 import com.roomih.orderapi.dto.SubscriptionRequest;
+import com.roomih.orderapi.entitlement.EntitlementStore;
+import com.roomih.orderapi.event.SubscriptionChangedEvent;
 import com.roomih.orderapi.exception.ResourceNotFoundException;
 import com.roomih.orderapi.exception.SubscriptionException;
+import com.roomih.orderapi.exception.UserNotFoundException;
 import com.roomih.orderapi.model.*;
 import com.roomih.orderapi.repository.*;
-import com.roomih.orderapi.service.CartService;
+import com.roomih.orderapi.service.OptimisticRetry;
 import com.roomih.orderapi.service.SubscriptionService;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SubscriptionServiceImpl implements SubscriptionService {
 
+    // Частичный уникальный индекс (user_id, publication_id) WHERE active, см. V5
+    private static final String ACTIVE_SUBSCRIPTION_UNIQUE = "uq_subscriptions_user_publication_active";
+
     private final SubscriptionRepository subscriptionRepository;
     private final PublicationRepository publicationRepository;
+    private final CartItemRepository cartItemRepository;
     private final CartRepository cartRepository;
-    private final CartService cartService;
+    private final UserRepository userRepository;
+    private final EntitlementStore entitlementStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetry optimisticRetry;
 
     @Override
     @Transactional
-    public Subscription createSubscription(User user, SubscriptionRequest request) {
+    public Subscription createSubscription(Long userId, SubscriptionRequest request) {
         Publication publication = publicationRepository.findById(request.getPublicationId())
                 .orElseThrow(() -> new ResourceNotFoundException("Публикация не найдена"));
 
-        // Проверяем, нет ли уже активной подписки на эту публикацию
-        Optional<Subscription> existingSubscription = subscriptionRepository
-                .findByUserAndPublicationAndActiveTrue(user, publication);
-        
-        if (existingSubscription.isPresent()) {
-            throw new SubscriptionException("У вас уже есть активная подписка на эту публикацию");
-        }
-
         // Проверяем корректность периода подписки
         if (request.getSubscriptionPeriod() < 1 || request.getSubscriptionPeriod() > 12) {
             throw new SubscriptionException("Период подписки должен быть от 1 до 12 месяцев");
@@ -56,7 +66,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         }
 
         Subscription subscription = new Subscription();
-        subscription.setUser(user);
+        subscription.setUser(findUser(userId));
         subscription.setPublication(publication);
         subscription.setStartDate(startDate);
         subscription.setEndDate(endDate);
@@ -64,30 +74,59 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         subscription.setTotalPrice(request.getTotalPrice());
         subscription.setActive(true);
 
-        return subscriptionRepository.save(subscription);
+        // Без предварительной проверки: вторую активную подписку отсечёт уникальный индекс
+        Subscription saved;
+        try {
+            saved = subscriptionRepository.saveAndFlush(subscription);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateActive(e)) {
+                throw new SubscriptionException("У вас уже есть активная подписка на эту публикацию");
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(SubscriptionChangedEvent.activated(saved));
+        return saved;
     }
 
     @Override
-    @Transactional
-    public List<Subscription> createSubscriptionsFromCartRequests(User user, List<SubscriptionRequest> requests) {
+    public List<Subscription> createSubscriptionsFromCartRequests(Long userId, List<SubscriptionRequest> requests) {
+        // Повтор при конфликте версий корзины, например с добавлением товара во время оформления
+        return optimisticRetry.execute("subscription.checkout", () -> checkout(userId, requests));
+    }
+
+    private List<Subscription> checkout(Long userId, List<SubscriptionRequest> requests) {
+        // Элементы корзины удаляются массовым DELETE в обход @Version, поэтому версию корзины
+        // поднимаем явно: параллельное изменение корзины закончится конфликтом, а не потерей
+        cartRepository.findForUpdateByUserId(userId);
+        User user = findUser(userId);
+
+        // Число запросов не зависит от размера корзины: публикации и активные подписки читаются одним IN-запросом каждые
+        Set<Long> publicationIds = requests.stream()
+                .map(SubscriptionRequest::getPublicationId)
+                .collect(Collectors.toSet());
+        Map<Long, Publication> publications = publicationRepository.findAllById(publicationIds).stream()
+                .collect(Collectors.toMap(Publication::getId, Function.identity()));
+        if (publications.size() < publicationIds.size()) {
+            throw new ResourceNotFoundException("Публикация не найдена");
+        }
+        Map<Long, LocalDateTime> activeUntil = new HashMap<>();
+        for (Subscription active : subscriptionRepository.findByUserIdAndActiveTrueAndPublicationIdIn(userId, publicationIds)) {
+            activeUntil.merge(active.getPublication().getId(), active.getEndDate(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+
         List<Subscription> subscriptions = new ArrayList<>();
         List<String> errors = new ArrayList<>();
         
         for (SubscriptionRequest request : requests) {
+            Publication publication = publications.get(request.getPublicationId());
             try {
-                // Проверяем существование публикации
-                Publication publication = publicationRepository.findById(request.getPublicationId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Пуб��икация не найдена"));
-
-                // Проверяем наличие активной подписки
-                Optional<Subscription> existingSubscription = subscriptionRepository
-                        .findByUserAndPublicationAndActiveTrue(user, publication);
-                
-                if (existingSubscription.isPresent()) {
+                // Проверяем наличие активной подписки, в том числе оформленной выше в этой же корзине
+                LocalDateTime existingEndDate = activeUntil.get(publication.getId());
+                if (existingEndDate != null) {
                     errors.add(String.format(
                         "Публикация '%s': У вас уже есть активная подписка до %s", 
                         publication.getTitle(),
-                        existingSubscription.get().getEndDate().format(java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy"))
+                        existingEndDate.format(DateTimeFormatter.ofPattern("dd.MM.yyyy"))
                     ));
                     continue;
                 }
@@ -102,14 +141,25 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                 subscription.setTotalPrice(request.getTotalPrice());
                 subscription.setActive(true);
 
-                subscriptions.add(subscriptionRepository.save(subscription));
+                subscriptions.add(subscription);
+                activeUntil.put(publication.getId(), subscription.getEndDate());
             } catch (Exception e) {
-                Publication publication = publicationRepository.findById(request.getPublicationId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Публикация не найдена"));
                 errors.add("Публикация '" + publication.getTitle() + "': " + e.getMessage());
             }
         }
 
+        // Одна пачка вставок вместо save на каждый элемент. Проверка выше видит только уже
+        // закоммиченные подписки, параллельное оформление той же публикации отсекает индекс
+        try {
+            subscriptions = subscriptionRepository.saveAllAndFlush(subscriptions);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateActive(e)) {
+                throw new SubscriptionException("Не удалось оформить подписки: одна из публикаций уже оформлена в другом запросе");
+            }
+            throw e;
+        }
+        subscriptions.forEach(saved -> eventPublisher.publishEvent(SubscriptionChangedEvent.activated(saved)));
+
         // Если были ошибки
         if (!errors.isEmpty()) {
             // Если есть успешно созданные подписки, очищаем только соответствующие элементы корзины
@@ -118,12 +168,8 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                         .map(s -> s.getPublication().getId())
                         .collect(Collectors.toSet());
                 
-                Cart cart = cartRepository.findByUser(user)
-                        .orElseThrow(() -> new ResourceNotFoundException("Корзина не найдена"));
-                
                 // Удаляем только успешно оформленные подписки из корзины
-                cart.getItems().removeIf(item -> successfulPublicationIds.contains(item.getPublication().getId()));
-                cartRepository.save(cart);
+                cartItemRepository.deleteByCartUserIdAndPublicationIdIn(userId, successfulPublicationIds);
                 
                 throw new SubscriptionException("Некоторые подписки не были оформлены: " + String.join("; ", errors));
             } else {
@@ -131,76 +177,86 @@ public class SubscriptionServiceImpl implements SubscriptionService {
             }
         }
 
-        // Если все успешно, очищаем всю корзину
-        cartService.clearCart(user);
+        // Если все успешно, очищаем всю корзину одним запросом
+        cartItemRepository.deleteByCartUserId(userId);
 
         return subscriptions;
     }
 
     @Override
-    public List<Subscription> getUserSubscriptions(User user) {
-        return subscriptionRepository.findByUserOrderByStartDateDesc(user);
+    public List<Subscription> getUserSubscriptions(Long userId) {
+        return subscriptionRepository.findByUserIdOrderByStartDateDesc(userId);
     }
 
     @Override
-    public List<Subscription> getActiveSubscriptions(User user) {
-        return subscriptionRepository.findByUserAndActiveTrue(user);
+    public List<Subscription> getActiveSubscriptions(Long userId) {
+        return subscriptionRepository.findByUserIdAndActiveTrue(userId);
     }
 
     @Override
-    @Transactional
-    public void cancelSubscription(User user, Long subscriptionId) {
-        Subscription subscription = subscriptionRepository.findByIdAndUser(subscriptionId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Подписка не найдена"));
-
-        if (!subscription.isActive()) {
-            throw new SubscriptionException("Подписка уже отменена или завершена");
-        }
+    public void cancelSubscription(Long userId, Long subscriptionId) {
+        // Повтор при конфликте версий, например с изменением периода или фоновым истечением
+        optimisticRetry.run("subscription.cancel", () -> {
+            Subscription subscription = subscriptionRepository.findByIdAndUserId(subscriptionId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Подписка не найдена"));
+
+            if (!subscription.isActive()) {
+                throw new SubscriptionException("Подписка уже отменена или завершена");
+            }
 
-        subscription.setActive(false);
-        subscriptionRepository.save(subscription);
+            subscription.setActive(false);
+            subscriptionRepository.save(subscription);
+            eventPublisher.publishEvent(SubscriptionChangedEvent.deactivated(subscription));
+        });
     }
 
     @Override
-    @Transactional
-    public Subscription updateSubscriptionPeriod(User user, Long subscriptionId, Integer newPeriod) {
-        Subscription subscription = subscriptionRepository.findByIdAndUser(subscriptionId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Подписка не найдена"));
+    public Subscription updateSubscriptionPeriod(Long userId, Long subscriptionId, Integer newPeriod) {
+        return optimisticRetry.execute("subscription.period", () -> {
+            Subscription subscription = subscriptionRepository.findByIdAndUserId(subscriptionId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Подписка не найдена"));
 
-        if (!subscription.isActive()) {
-            throw new SubscriptionException("Нельзя изменить период неактивной подписки");
-        }
+            if (!subscription.isActive()) {
+                throw new SubscriptionException("Нельзя изменить период неактивной подписки");
+            }
 
-        if (newPeriod < 1 || newPeriod > 12) {
-            throw new SubscriptionException("Период подписки должен быть от 1 до 12 месяцев");
-        }
+            if (newPeriod < 1 || newPeriod > 12) {
+                throw new SubscriptionException("Период подписки должен быть от 1 до 12 месяцев");
+            }
 
-        // Получаем цену за месяц из публикации
-        double pricePerMonth = subscription.getPublication().getPricePerMonth();
-        double newTotalPrice = pricePerMonth * newPeriod;
+            // Получаем цену за месяц из публикации
+            double pricePerMonth = subscription.getPublication().getPricePerMonth();
+            double newTotalPrice = pricePerMonth * newPeriod;
 
-        // Обновляем данные подписки
-        subscription.setSubscriptionPeriod(newPeriod);
-        subscription.setEndDate(subscription.getStartDate().plusMonths(newPeriod));
-        subscription.setTotalPrice(newTotalPrice);
+            // Обновляем данные подписки
+            subscription.setSubscriptionPeriod(newPeriod);
+            subscription.setEndDate(subscription.getStartDate().plusMonths(newPeriod));
+            subscription.setTotalPrice(newTotalPrice);
 
-        // Сохраняем и инициализируем связанные сущности
-        Subscription savedSubscription = subscriptionRepository.save(subscription);
-        savedSubscription.getPublication().getTitle(); // Инициализируем публикацию
-        savedSubscription.getUser().getEmail(); // Инициализируем пользователя
+            // Публикация и пользователь уже загружены вместе с подпиской
+            Subscription saved = subscriptionRepository.save(subscription);
+            eventPublisher.publishEvent(SubscriptionChangedEvent.activated(saved));
+            return saved;
+        });
+    }
 
-        return savedSubscription;
+    @Override
+    public EntitlementStatus checkEntitlement(Long userId, Long publicationId) {
+        return entitlementStore.status(userId, publicationId);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public Subscription findActiveSubscriptionForPublication(User user, Long publicationId) {
-        Publication publication = publicationRepository.findById(publicationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Публикация не найдена"));
-        
-        Optional<Subscription> subscription = subscriptionRepository
-                .findByUserAndPublicationAndActiveTrue(user, publication);
-        
-        return subscription.orElse(null);
+    public Map<Long, EntitlementStatus> checkEntitlements(Long userId, Collection<Long> publicationIds) {
+        return entitlementStore.statuses(userId, publicationIds);
+    }
+
+    private static boolean isDuplicateActive(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && ACTIVE_SUBSCRIPTION_UNIQUE.equals(violation.getConstraintName());
+    }
+
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("Пользователь не найден"));
     }
 } 
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.roomih.orderapi.service.impl;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.roomih.orderapi.event.TokensRevokedEvent;
 import com.roomih.orderapi.model.User;
 import com.roomih.orderapi.repository.UserRepository;
+import com.roomih.orderapi.exception.UserNotFoundException;
 import com.roomih.orderapi.service.UserService;
 
 import java.util.List;
@@ -14,10 +17,13 @@ public class UserServiceImpl implements UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                           ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -31,6 +37,12 @@ public class UserServiceImpl implements UserService {
             .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    @Override
+    public User getUserById(Long id) {
+        return userRepository.findById(id)
+            .orElseThrow(() -> new UserNotFoundException("User not found"));
+    }
+
     @Override
     public boolean hasUserWithEmail(String email) {
         return userRepository.existsByEmail(email);
@@ -38,12 +50,20 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User saveUser(User user) {
-        return userRepository.save(user);
+        // Роль зашита в access-токен, поэтому после её смены ранее выданные токены отзываются
+        if (user.getId() != null && userRepository.findStoredRoleById(user.getId())
+                .filter(role -> !role.equals(user.getRole())).isPresent()) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new TokensRevokedEvent(saved.getId()));
+        return saved;
     }
 
     @Override
     public void deleteUser(User user) {
         userRepository.delete(user);
+        eventPublisher.publishEvent(new TokensRevokedEvent(user.getId()));
     }
 
     @Override
@@ -54,7 +74,14 @@ public class UserServiceImpl implements UserService {
     @Override
     public void changeUserPassword(User user, String newPassword) {
         user.setPassword(passwordEncoder.encode(newPassword));
+        revokeTokens(user);
+    }
+
+    @Override
+    public void revokeTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        eventPublisher.publishEvent(new TokensRevokedEvent(user.getId()));
     }
 
     @Override
@@ -0,0 +1,25 @@
+-- Идентификаторы берутся из последовательностей блоками по 50 (pooled optimizer Hibernate),
+-- иначе Hibernate не может группировать INSERT в JDBC-пакеты.
+-- На пустой базе таблиц ещё нет: их создаёт V2, здесь только последовательности.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS publications_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS subscriptions_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS carts_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cart_items_seq INCREMENT BY 50;
+
+-- Существующие таблицы: последовательность продолжает после текущего максимума,
+-- identity у колонки id снимается, чтобы у ключа был один источник
+DO $$
+DECLARE
+    entity TEXT;
+    max_id BIGINT;
+BEGIN
+    FOREACH entity IN ARRAY ARRAY['users', 'publications', 'subscriptions', 'carts', 'cart_items'] LOOP
+        IF to_regclass(entity) IS NOT NULL THEN
+            EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', entity) INTO max_id;
+            PERFORM setval(entity || '_seq', max_id + 50);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', entity);
+        END IF;
+    END LOOP;
+END $$;
@@ -0,0 +1,67 @@
+-- Схема, которую раньше создавал и обновлял ddl-auto: update. На базе, уже созданной Hibernate,
+-- таблицы есть и пропускаются; дальше схема меняется только миграциями, Hibernate её лишь проверяет.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    role VARCHAR(255),
+    phone_number VARCHAR(255),
+    address VARCHAR(255),
+    city VARCHAR(255),
+    postal_code VARCHAR(255),
+    token_version INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP(6),
+    CONSTRAINT users_pkey PRIMARY KEY (id)
+);
+
+-- Колонка появилась позже остальных, на старых базах её мог не успеть добавить ddl-auto
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS publications (
+    id BIGINT NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    content TEXT,
+    price_per_month FLOAT(53) NOT NULL,
+    type VARCHAR(255) NOT NULL
+        CHECK (type IN ('MAGAZINE', 'NEWSPAPER', 'JOURNAL', 'SCIENTIFIC_PUBLICATION')),
+    created_at TIMESTAMP(6),
+    CONSTRAINT publications_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS subscriptions (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    publication_id BIGINT NOT NULL,
+    start_date TIMESTAMP(6) NOT NULL,
+    end_date TIMESTAMP(6) NOT NULL,
+    subscription_period INTEGER NOT NULL,
+    total_price FLOAT(53) NOT NULL,
+    active BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6),
+    CONSTRAINT subscriptions_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_subscriptions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_subscriptions_publication FOREIGN KEY (publication_id) REFERENCES publications (id)
+);
+
+CREATE TABLE IF NOT EXISTS carts (
+    id BIGINT NOT NULL,
+    user_id BIGINT,
+    CONSTRAINT carts_pkey PRIMARY KEY (id),
+    CONSTRAINT carts_user_id_key UNIQUE (user_id),
+    CONSTRAINT fk_carts_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS cart_items (
+    id BIGINT NOT NULL,
+    cart_id BIGINT,
+    publication_id BIGINT,
+    subscription_period INTEGER,
+    total_price FLOAT4,
+    CONSTRAINT cart_items_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_cart_items_cart FOREIGN KEY (cart_id) REFERENCES carts (id),
+    CONSTRAINT fk_cart_items_publication FOREIGN KEY (publication_id) REFERENCES publications (id)
+);
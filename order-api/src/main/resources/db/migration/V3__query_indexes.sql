@@ -0,0 +1,55 @@
+-- Индексы под условия, по которым ходят репозитории.
+-- carts(user_id) уже покрыт уникальным ограничением из V2 (или из ddl-auto на старых базах).
+
+-- findByUserIdAndActiveTrue, findByUserIdOrderByStartDateDesc (по префиксу user_id)
+CREATE INDEX IF NOT EXISTS idx_subscriptions_user_active ON subscriptions (user_id, active);
+
+-- Проверка активной подписки на публикацию: частичный индекс только по активным строкам
+CREATE INDEX IF NOT EXISTS idx_subscriptions_user_publication_active
+    ON subscriptions (user_id, publication_id) WHERE active;
+
+-- Содержимое корзины и её очистка
+CREATE INDEX IF NOT EXISTS idx_cart_items_cart ON cart_items (cart_id);
+
+-- Keyset-выдача каталога «сначала новые»
+CREATE INDEX IF NOT EXISTS idx_publications_created_at_id ON publications (created_at, id);
+
+-- Вход и регистрация ищут email без учёта регистра. Уникальность теперь тоже без учёта регистра,
+-- поэтому прежнее ограничение UNIQUE (email) больше не нужно.
+-- Адреса, совпадающие без учёта регистра, — это разные учётные записи со своими подписками и корзинами,
+-- и слить их автоматически нельзя. Миграция останавливается и перечисляет их для ручного разбора.
+DO $$
+DECLARE
+    conflicts TEXT;
+BEGIN
+    SELECT string_agg(emails, '; ') INTO conflicts
+    FROM (
+        SELECT string_agg(email, ', ' ORDER BY id) AS emails
+        FROM users
+        GROUP BY lower(email)
+        HAVING count(*) > 1
+    ) duplicates;
+    IF conflicts IS NOT NULL THEN
+        RAISE EXCEPTION 'Email пользователей совпадают без учёта регистра: %', conflicts
+            USING HINT = 'Переименуйте или объедините эти учётные записи и перезапустите приложение';
+    END IF;
+END $$;
+
+DO $$
+DECLARE
+    constraint_name TEXT;
+BEGIN
+    FOR constraint_name IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey)
+        WHERE con.conrelid = 'users'::regclass
+          AND con.contype = 'u'
+          AND array_length(con.conkey, 1) = 1
+          AND att.attname = 'email'
+    LOOP
+        EXECUTE format('ALTER TABLE users DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_email_lower ON users (lower(email));
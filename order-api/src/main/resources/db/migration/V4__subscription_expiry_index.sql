@@ -0,0 +1,3 @@
+-- Фоновое истечение подписок выбирает активные строки с наступившей датой окончания.
+-- Частичный индекс: завершённые подписки в него не попадают, и он не растёт вместе с историей.
+CREATE INDEX IF NOT EXISTS idx_subscriptions_active_end_date ON subscriptions (end_date) WHERE active;
@@ -0,0 +1,17 @@
+-- Не больше одной активной подписки пользователя на публикацию. Раньше это проверялось
+-- только SELECT перед INSERT, и параллельные запросы могли создать дубли: из них оставляем
+-- подписку с самой поздней датой окончания, остальные деактивируем.
+UPDATE subscriptions s
+SET active = false
+FROM (
+    SELECT id, row_number() OVER (PARTITION BY user_id, publication_id ORDER BY end_date DESC, id DESC) AS rn
+    FROM subscriptions
+    WHERE active
+) duplicates
+WHERE s.id = duplicates.id AND duplicates.rn > 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_subscriptions_user_publication_active
+    ON subscriptions (user_id, publication_id) WHERE active;
+
+-- Тот же частичный индекс из V3, только неуникальный
+DROP INDEX IF EXISTS idx_subscriptions_user_publication_active;
@@ -0,0 +1,5 @@
+-- Версии для оптимистичной блокировки: UPDATE ... WHERE version = ? вместо блокировки строк.
+-- Существующие строки начинают с нуля.
+ALTER TABLE subscriptions ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE carts ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE publications ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+-- Keyset-выдача каталога по названию: (title, id) > (?, ?) начинает чтение с позиции курсора
+CREATE INDEX IF NOT EXISTS idx_publications_title_id ON publications (title, id);
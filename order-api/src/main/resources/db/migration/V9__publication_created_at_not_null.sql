@@ -0,0 +1,8 @@
+-- Курсор каталога по новизне сравнивает (created_at, id), и строки с NULL из него выпадали.
+-- Публикации без даты считаются самыми старыми: получают дату самой ранней из известных.
+UPDATE publications
+SET created_at = COALESCE((SELECT min(created_at) FROM publications), now())
+WHERE created_at IS NULL;
+
+ALTER TABLE publications ALTER COLUMN created_at SET DEFAULT now();
+ALTER TABLE publications ALTER COLUMN created_at SET NOT NULL;
@@ -0,0 +1,165 @@
+package com.roomih.benchmark;
+
+import jakarta.persistence.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Скорость массовой вставки подписок и элементов корзины через Hibernate:
+ * id из IDENTITY (как было — каждая строка отдельным INSERT ... RETURNING)
+ * против id из последовательности с pooled-оптимизатором (INSERT пакетами по 50).
+ * Результат — вставок в секунду. Создаёт и удаляет таблицы bench_*, поэтому базу указывают явно —
+ * лучше отдельную, не рабочую orderdb.
+ * Лежит вне com.roomih.orderapi, чтобы его сущности не находил сканер сущностей приложения.
+ *
+ * Запуск: mvn test-compile exec:java -Dexec.classpathScope=test
+ *         -Dexec.mainClass=com.roomih.benchmark.EntityInsertBenchmark
+ *         -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/benchdb
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityInsertBenchmark {
+
+    // Строк в одной транзакции: крупная корзина или пакетное оформление
+    private static final int ROWS = 200;
+
+    @Param({"IDENTITY", "POOLED_SEQUENCE"})
+    public String ids;
+
+    private SessionFactory sessionFactory;
+    private boolean pooled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("bench.jdbc.url");
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("Укажите базу для бенчмарка: -Dbench.jdbc.url=jdbc:postgresql://...");
+        }
+        pooled = ids.equals("POOLED_SEQUENCE");
+        Configuration configuration = new Configuration()
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, url + "?reWriteBatchedInserts=true")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, System.getProperty("bench.jdbc.user", "postgres"))
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, System.getProperty("bench.jdbc.password", "postgres"))
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true");
+        if (pooled) {
+            configuration.addAnnotatedClass(PooledSubscription.class).addAnnotatedClass(PooledCartItem.class);
+        } else {
+            configuration.addAnnotatedClass(IdentitySubscription.class).addAnnotatedClass(IdentityCartItem.class);
+        }
+        sessionFactory = configuration.buildSessionFactory();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void subscriptions() {
+        sessionFactory.inTransaction(session -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < ROWS; i++) {
+                SubscriptionRow row = pooled ? new PooledSubscription() : new IdentitySubscription();
+                row.userId = 1L;
+                row.publicationId = (long) i;
+                row.startDate = now;
+                row.endDate = now.plusMonths(3);
+                row.subscriptionPeriod = 3;
+                row.totalPrice = 899.97;
+                row.active = true;
+                session.persist(row);
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void cartItems() {
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < ROWS; i++) {
+                CartItemRow row = pooled ? new PooledCartItem() : new IdentityCartItem();
+                row.cartId = 1L;
+                row.publicationId = (long) i;
+                row.subscriptionPeriod = 1;
+                row.totalPrice = 299.99f;
+                session.persist(row);
+            }
+        });
+    }
+
+    // Те же колонки, что у subscriptions и cart_items, но без внешних ключей
+    @MappedSuperclass
+    public abstract static class SubscriptionRow {
+        Long userId;
+        Long publicationId;
+        LocalDateTime startDate;
+        LocalDateTime endDate;
+        Integer subscriptionPeriod;
+        Double totalPrice;
+        boolean active;
+    }
+
+    @MappedSuperclass
+    public abstract static class CartItemRow {
+        Long cartId;
+        Long publicationId;
+        Integer subscriptionPeriod;
+        Float totalPrice;
+    }
+
+    @Entity
+    @Table(name = "bench_identity_subscriptions")
+    public static class IdentitySubscription extends SubscriptionRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+    }
+
+    @Entity
+    @Table(name = "bench_pooled_subscriptions")
+    public static class PooledSubscription extends SubscriptionRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bench_subscriptions_seq")
+        @SequenceGenerator(name = "bench_subscriptions_seq", sequenceName = "bench_subscriptions_seq", allocationSize = 50)
+        Long id;
+    }
+
+    @Entity
+    @Table(name = "bench_identity_cart_items")
+    public static class IdentityCartItem extends CartItemRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+    }
+
+    @Entity
+    @Table(name = "bench_pooled_cart_items")
+    public static class PooledCartItem extends CartItemRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bench_cart_items_seq")
+        @SequenceGenerator(name = "bench_cart_items_seq", sequenceName = "bench_cart_items_seq", allocationSize = 50)
+        Long id;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EntityInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
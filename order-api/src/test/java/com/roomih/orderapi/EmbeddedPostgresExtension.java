@@ -0,0 +1,109 @@
+package com.roomih.orderapi;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfigurationAttributes;
+import org.springframework.test.context.ContextCustomizer;
+import org.springframework.test.context.ContextCustomizerFactory;
+import org.springframework.test.context.MergedContextConfiguration;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Одна встроенная PostgreSQL со схемой из миграций Flyway на весь прогон тестов.
+ * Перед каждым тестовым классом таблицы очищаются, так что классы не видят данных друг друга.
+ * Spring-контекст класса с этим расширением получает spring.datasource.* этой базы, см. {@link DataSourceCustomizerFactory}.
+ */
+public class EmbeddedPostgresExtension implements BeforeAllCallback {
+
+    private static EmbeddedPostgres postgres;
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        EmbeddedPostgres database = postgres();
+        // Корневое хранилище закрывается после всех тестов JVM
+        context.getRoot().getStore(ExtensionContext.Namespace.GLOBAL).getOrComputeIfAbsent(
+                EmbeddedPostgresExtension.class,
+                key -> (ExtensionContext.Store.CloseableResource) database::close,
+                ExtensionContext.Store.CloseableResource.class);
+        truncateAll();
+    }
+
+    public static DataSource dataSource() {
+        return postgres().getPostgresDatabase();
+    }
+
+    public static String jdbcUrl() {
+        return postgres().getJdbcUrl("postgres", "postgres");
+    }
+
+    /**
+     * Отдельная пустая база в том же сервере — для тестов, которым нужна схема не целиком.
+     */
+    public static DataSource emptyDatabase(String name) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource());
+        jdbcTemplate.execute("DROP DATABASE IF EXISTS " + name);
+        jdbcTemplate.execute("CREATE DATABASE " + name);
+        return postgres().getDatabase("postgres", name);
+    }
+
+    private static synchronized EmbeddedPostgres postgres() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        }
+        return postgres;
+    }
+
+    private static void truncateAll() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource());
+        String tables = jdbcTemplate.queryForObject("SELECT string_agg(quote_ident(tablename), ', ') FROM pg_tables "
+                + "WHERE schemaname = 'public' AND tablename <> 'flyway_schema_history'", String.class);
+        jdbcTemplate.execute("TRUNCATE " + tables + " CASCADE");
+    }
+
+    /**
+     * Зарегистрирована в META-INF/spring.factories тестов: подставляет адрес встроенной базы
+     * в контексты тестовых классов, подключивших расширение.
+     */
+    public static class DataSourceCustomizerFactory implements ContextCustomizerFactory {
+
+        @Override
+        public ContextCustomizer createContextCustomizer(Class<?> testClass,
+                                                         List<ContextConfigurationAttributes> configAttributes) {
+            boolean extended = MergedAnnotations.from(testClass, MergedAnnotations.SearchStrategy.TYPE_HIERARCHY)
+                    .stream(ExtendWith.class)
+                    .anyMatch(extendWith -> Arrays.asList(extendWith.getClassArray("value"))
+                            .contains(EmbeddedPostgresExtension.class));
+            return extended ? new DataSourceCustomizer() : null;
+        }
+    }
+
+    // Без полей: все такие контексты равны и делят кэш контекстов Spring
+    private record DataSourceCustomizer() implements ContextCustomizer {
+
+        @Override
+        public void customizeContext(ConfigurableApplicationContext context, MergedContextConfiguration mergedConfig) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("embeddedPostgres", Map.of(
+                    "spring.datasource.url", jdbcUrl(),
+                    "spring.datasource.username", "postgres",
+                    "spring.datasource.password", "postgres")));
+        }
+    }
+}
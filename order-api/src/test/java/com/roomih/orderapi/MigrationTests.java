@@ -0,0 +1,57 @@
+package com.roomih.orderapi;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Миграции на базе, где уже есть данные, которые им мешают.
+ */
+@ExtendWith(EmbeddedPostgresExtension.class)
+class MigrationTests {
+
+    @Test
+    void emailsDifferingOnlyInCaseStopMigrationWithTheirList() {
+        DataSource dataSource = EmbeddedPostgresExtension.emptyDatabase("case_emails");
+        Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users (id, email, password) VALUES (1, 'Reader@example.com', 'secret')");
+        jdbcTemplate.update("INSERT INTO users (id, email, password) VALUES (2, 'reader@example.com', 'secret')");
+        jdbcTemplate.update("INSERT INTO users (id, email, password) VALUES (3, 'writer@example.com', 'secret')");
+
+        assertThatThrownBy(() -> Flyway.configure().dataSource(dataSource).load().migrate())
+                .isInstanceOf(FlywayException.class)
+                .hasMessageContaining("Reader@example.com, reader@example.com")
+                .hasMessageNotContaining("writer@example.com");
+
+        // Схема осталась на V2, и после разбора дублей миграция проходит
+        jdbcTemplate.update("UPDATE users SET email = 'reader2@example.com' WHERE id = 2");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM pg_indexes WHERE indexname = 'idx_users_email_lower'",
+                Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void publicationsWithoutDateBecomeOldest() {
+        DataSource dataSource = EmbeddedPostgresExtension.emptyDatabase("undated_publications");
+        Flyway.configure().dataSource(dataSource).target("8").load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO publications (id, title, type, price_per_month, created_at) "
+                + "VALUES (1, 'Forbes', 'MAGAZINE', 100, '2024-03-01 10:00'), (2, 'Vogue', 'MAGAZINE', 100, '2024-01-01 10:00')");
+        jdbcTemplate.update("INSERT INTO publications (id, title, type, price_per_month) VALUES (3, 'TIME', 'MAGAZINE', 100)");
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT created_at::text FROM publications WHERE id = 3", String.class))
+                .isEqualTo("2024-01-01 10:00:00");
+        assertThat(jdbcTemplate.queryForObject("SELECT is_nullable FROM information_schema.columns "
+                + "WHERE table_name = 'publications' AND column_name = 'created_at'", String.class)).isEqualTo("NO");
+    }
+}
@@ -0,0 +1,96 @@
+package com.roomih.orderapi.benchmark;
+
+import com.roomih.orderapi.model.User;
+import com.roomih.orderapi.repository.UserRepository;
+import com.roomih.orderapi.security.TokenAuthenticationFilter;
+import com.roomih.orderapi.security.TokenProvider;
+import com.roomih.orderapi.security.TokenVersionCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * GET каталога с bearer-токеном через TokenAuthenticationFilter:
+ * полный разбор токена (как раньше) против быстрого пути для permitAll-маршрутов.
+ * Аллокации на запрос смотреть с профайлером: -prof gc (gc.alloc.rate.norm).
+ *
+ * Запуск: java -cp target/test-classes:target/classes:<test classpath>
+ *         org.openjdk.jmh.Main PublicEndpointFilterBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublicEndpointFilterBenchmark {
+
+    private static final String SECRET = "v9y$B&E)H@MbQeThWmZq4t7w!z%C*F-JaNdRfUjXn2r5u8x/A?D(G+KbPeShVkYp";
+    private static final FilterChain NOOP_CHAIN = (request, response) -> { };
+
+    private TokenAuthenticationFilter fastPathFilter;
+    private TokenAuthenticationFilter fullFilter;
+    private MockHttpServletRequest catalogRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("user@example.com");
+        user.setRole("USER");
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        TokenProvider tokenProvider = new TokenProvider(SECRET, 15, 10_000);
+        TokenVersionCache tokenVersionCache = new TokenVersionCache(userRepository, 10_000, 300);
+
+        fastPathFilter = new TokenAuthenticationFilter(tokenProvider, tokenVersionCache);
+        fullFilter = new TokenAuthenticationFilter(tokenProvider, tokenVersionCache) {
+            @Override
+            protected boolean shouldNotFilter(HttpServletRequest request) {
+                return false;
+            }
+        };
+
+        catalogRequest = new MockHttpServletRequest("GET", "/api/publications");
+        catalogRequest.setServletPath("/api/publications");
+        catalogRequest.setQueryString("page=0&size=20");
+        catalogRequest.addHeader("Authorization", "Bearer " + tokenProvider.generate(user));
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void catalogGetFullTokenProcessing() throws Exception {
+        fullFilter.doFilter(catalogRequest, response, NOOP_CHAIN);
+    }
+
+    @Benchmark
+    public void catalogGetPublicFastPath() throws Exception {
+        fastPathFilter.doFilter(catalogRequest, response, NOOP_CHAIN);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PublicEndpointFilterBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.roomih.orderapi.benchmark;
+
+import com.roomih.orderapi.dto.PublicationDocument;
+import com.roomih.orderapi.dto.SearchHit;
+import com.roomih.orderapi.repository.PublicationRepository;
+import com.roomih.orderapi.search.PublicationSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Время запроса к полнотекстовому индексу на 100 000 публикаций.
+ * Слова документов распределены по Ципфу, так что есть и частые, и редкие термы.
+ *
+ * Запуск: mvn test-compile exec:java -Dexec.classpathScope=test
+ *         -Dexec.mainClass=com.roomih.orderapi.benchmark.SearchIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class SearchIndexBenchmark {
+
+    private static final int PUBLICATIONS = 100_000;
+    private static final int VOCABULARY = 20_000;
+    private static final String[] SYLLABLES = {
+            "ка", "ро", "ми", "на", "то", "ле", "са", "ви", "ду", "ге", "ла", "по", "ре", "ст", "ни", "ко"};
+
+    @Param({"rare", "common", "twoTerms", "prefix"})
+    public String kind;
+
+    private PublicationSearchIndex index;
+    private String query;
+    private final Pageable firstPage = PageRequest.of(0, 20);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = word(i);
+        }
+
+        List<PublicationDocument> publications = new ArrayList<>(PUBLICATIONS);
+        for (long id = 1; id <= PUBLICATIONS; id++) {
+            publications.add(new PublicationDocument(id, text(random, words, 3), text(random, words, 12), null,
+                    100.0, null, text(random, words, 60)));
+        }
+
+        PublicationRepository repository = mock(PublicationRepository.class);
+        when(repository.streamAllDocuments()).thenAnswer(invocation -> publications.stream());
+        index = new PublicationSearchIndex(repository);
+        index.rebuild();
+
+        query = switch (kind) {
+            case "rare" -> words[VOCABULARY - 10];
+            case "common" -> words[1];
+            case "twoTerms" -> words[50] + " " + words[700];
+            default -> words[300].substring(0, 4);
+        };
+    }
+
+    @Benchmark
+    public Page<SearchHit> search() {
+        return index.search(query, firstPage);
+    }
+
+    // Ранг берётся по закону Ципфа: слово с номером r встречается примерно в 1/r раз реже первого
+    private static String text(Random random, String[] words, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            double u = random.nextDouble();
+            int rank = (int) Math.min(words.length - 1, Math.floor(Math.pow(words.length, u)) - 1);
+            text.append(words[rank]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static String word(int n) {
+        StringBuilder word = new StringBuilder("сл");
+        do {
+            word.append(SYLLABLES[n % SYLLABLES.length]);
+            n /= SYLLABLES.length;
+        } while (n > 0);
+        return word.append("т").toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SearchIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
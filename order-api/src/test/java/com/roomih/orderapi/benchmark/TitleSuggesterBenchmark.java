@@ -0,0 +1,76 @@
+package com.roomih.orderapi.benchmark;
+
+import com.roomih.orderapi.dto.PublicationPopularity;
+import com.roomih.orderapi.dto.Suggestion;
+import com.roomih.orderapi.repository.PublicationRepository;
+import com.roomih.orderapi.repository.SubscriptionRepository;
+import com.roomih.orderapi.search.TitleSuggester;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ответ подсказок на 10 000 названий: короткий и длинный префикс.
+ *
+ * Запуск: mvn test-compile exec:java -Dexec.classpathScope=test
+ *         -Dexec.mainClass=com.roomih.orderapi.benchmark.TitleSuggesterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TitleSuggesterBenchmark {
+
+    private static final String[] WORDS = {
+            "national", "new", "science", "nature", "journal", "review", "times", "world", "economist",
+            "наука", "новый", "мир", "жизнь", "техника", "вестник", "журнал", "история", "вокруг", "света"};
+
+    @Param({"н", "new yo"})
+    public String prefix;
+
+    private TitleSuggester suggester;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Suggestion> titles = new ArrayList<>();
+        List<PublicationPopularity> popularity = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 0; w < 3; w++) {
+                title.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            titles.add(new Suggestion(id, title.append("york ").append(id).toString()));
+            popularity.add(new PublicationPopularity(id, (long) random.nextInt(1000)));
+        }
+
+        PublicationRepository publicationRepository = mock(PublicationRepository.class);
+        SubscriptionRepository subscriptionRepository = mock(SubscriptionRepository.class);
+        when(publicationRepository.findAllTitles()).thenReturn(titles);
+        when(subscriptionRepository.countActiveByPublication()).thenReturn(popularity);
+        suggester = new TitleSuggester(publicationRepository, subscriptionRepository);
+        suggester.rebuild();
+    }
+
+    @Benchmark
+    public List<Suggestion> suggest() {
+        return suggester.suggest(prefix, TitleSuggester.MAX_SUGGESTIONS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TitleSuggesterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.roomih.orderapi.benchmark;
+
+import com.roomih.orderapi.model.User;
+import com.roomih.orderapi.security.CustomUserDetails;
+import com.roomih.orderapi.security.TokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Сравнение старой проверки токена (ключ и парсер на каждый вызов) с новой
+ * (ключ и парсер один раз + кэш проверенных токенов).
+ *
+ * Запуск: mvn test-compile exec:java -Dexec.classpathScope=test
+ *         -Dexec.mainClass=com.roomih.orderapi.benchmark.TokenProviderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenProviderBenchmark {
+
+    private static final String SECRET = "v9y$B&E)H@MbQeThWmZq4t7w!z%C*F-JaNdRfUjXn2r5u8x/A?D(G+KbPeShVkYp";
+
+    private TokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("user@example.com");
+        user.setPassword("hash");
+        user.setRole("USER");
+        CustomUserDetails details = new CustomUserDetails(user);
+
+        tokenProvider = new TokenProvider(SECRET, 15, 10_000);
+        token = tokenProvider.generate(new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()));
+    }
+
+    @Benchmark
+    public Jws<Claims> legacyValidate() {
+        SecretKey key = new SecretKeySpec(SECRET.getBytes(), "HmacSHA256");
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token);
+    }
+
+    @Benchmark
+    public Optional<Jws<Claims>> cachedValidate() {
+        return tokenProvider.validateTokenAndGetJws(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenProviderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package com.roomih.orderapi.entitlement;
+
+import com.roomih.orderapi.dto.Entitlement;
+import com.roomih.orderapi.dto.EntitlementStatus;
+import com.roomih.orderapi.event.SubscriptionChangedEvent;
+import com.roomih.orderapi.repository.SubscriptionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class EntitlementStoreTests {
+
+    private static final LocalDateTime NEXT_YEAR = LocalDateTime.now().plusYears(1).withNano(123_456_000);
+
+    private SubscriptionRepository repository;
+    private EntitlementStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SubscriptionRepository.class);
+        when(repository.findActiveEntitlements(1L)).thenReturn(List.of(
+                new Entitlement(30L, NEXT_YEAR),
+                new Entitlement(10L, NEXT_YEAR.minusMonths(6)),
+                new Entitlement(10L, NEXT_YEAR.minusMonths(1)),
+                new Entitlement(20L, LocalDateTime.now().minusDays(1))));
+        store = new EntitlementStore(repository, 1 << 20, 3600);
+    }
+
+    @Test
+    void userIsLoadedOnceAndAnsweredFromMemory() {
+        Map<Long, EntitlementStatus> statuses = store.statuses(1L, List.of(30L, 10L, 20L, 99L));
+
+        assertThat(statuses).containsExactly(
+                Map.entry(30L, new EntitlementStatus(true, NEXT_YEAR)),
+                Map.entry(10L, new EntitlementStatus(true, NEXT_YEAR.minusMonths(1))),
+                // Срок вышел, хотя подписку ещё не деактивировали
+                Map.entry(20L, new EntitlementStatus(false, null)),
+                Map.entry(99L, new EntitlementStatus(false, null)));
+        assertThat(store.status(1L, 30L).active()).isTrue();
+        verify(repository, times(1)).findActiveEntitlements(1L);
+    }
+
+    @Test
+    void changesAreAppliedToLoadedUsers() {
+        store.status(1L, 10L);
+
+        store.onSubscriptionChanged(new SubscriptionChangedEvent(1L, 40L, NEXT_YEAR));
+        store.onSubscriptionChanged(new SubscriptionChangedEvent(1L, 10L, null));
+        store.onSubscriptionChanged(new SubscriptionChangedEvent(1L, 30L, NEXT_YEAR.plusMonths(3)));
+
+        assertThat(store.status(1L, 40L)).isEqualTo(new EntitlementStatus(true, NEXT_YEAR));
+        assertThat(store.status(1L, 10L).active()).isFalse();
+        assertThat(store.status(1L, 30L).endDate()).isEqualTo(NEXT_YEAR.plusMonths(3));
+        verify(repository, times(1)).findActiveEntitlements(1L);
+    }
+
+    @Test
+    void changesForColdUsersWaitForTheNextLoad() {
+        store.onSubscriptionChanged(new SubscriptionChangedEvent(2L, 40L, NEXT_YEAR));
+
+        assertThat(store.status(2L, 40L).active()).isFalse();
+        verify(repository).findActiveEntitlements(2L);
+    }
+
+    @Test
+    void footprintIsReported() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+
+        store.status(1L, 10L);
+        store.status(1L, 10L);
+
+        // Три публикации: 64 + 16 + 2 * (16 + 24)
+        assertThat(registry.get("entitlements.store.bytes").gauge().value()).isEqualTo(160);
+        assertThat(registry.get("entitlements.store.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+}
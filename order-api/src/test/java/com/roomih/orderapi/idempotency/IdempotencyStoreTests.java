@@ -0,0 +1,146 @@
+package com.roomih.orderapi.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.roomih.orderapi.exception.IdempotencyException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTests {
+
+    private static final Map<String, Object> REQUEST = Map.of("publicationId", 1, "subscriptionPeriod", 3);
+
+    private SimpleMeterRegistry registry;
+    private IdempotencyStore store;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        store = new IdempotencyStore(new ObjectMapper(), registry, 60, 1 << 20, 5);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void retryWithSameKeyReplaysStoredResponse() {
+        ResponseEntity<?> first = store.execute(1L, "k-1", "subscription.create", REQUEST, this::create);
+        ResponseEntity<?> retry = store.execute(1L, "k-1", "subscription.create", REQUEST, this::create);
+
+        assertThat(executions).hasValue(1);
+        assertThat(first.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(new String((byte[]) retry.getBody(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void keysAreScopedPerUserAndOptional() {
+        store.execute(1L, "k-1", "subscription.create", REQUEST, this::create);
+        store.execute(2L, "k-1", "subscription.create", REQUEST, this::create);
+        store.execute(1L, null, "subscription.create", REQUEST, this::create);
+        store.execute(1L, null, "subscription.create", REQUEST, this::create);
+
+        assertThat(executions).hasValue(4);
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        store.execute(1L, "k-1", "subscription.create", REQUEST, this::create);
+
+        assertThatThrownBy(() -> store.execute(1L, "k-1", "subscription.create", Map.of("publicationId", 2), this::create))
+                .isInstanceOf(IdempotencyException.class)
+                .extracting(e -> ((IdempotencyException) e).getStatus())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThatThrownBy(() -> store.execute(1L, "k-1", "subscription.checkout", REQUEST, this::create))
+                .isInstanceOf(IdempotencyException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void failureIsNotStored() {
+        assertThatThrownBy(() -> store.execute(1L, "k-1", "subscription.create", REQUEST, () -> {
+            executions.incrementAndGet();
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        store.execute(1L, "k-1", "subscription.create", REQUEST, this::create);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void unserializableResponseStillCompletesKey() {
+        ResponseEntity<?> first = store.execute(1L, "k-1", "subscription.create", REQUEST, () -> {
+            executions.incrementAndGet();
+            // Как ленивая связь вне транзакции: Jackson не умеет сериализовать такое тело
+            return ResponseEntity.ok(new Object());
+        });
+        ResponseEntity<?> retry = store.execute(1L, "k-1", "subscription.create", REQUEST, this::create);
+
+        assertThat(executions).hasValue(1);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForFirstExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        Future<ResponseEntity<?>> first = pool.submit(() -> store.execute(1L, "k-1", "subscription.create", REQUEST, () -> {
+            started.countDown();
+            await(release);
+            return create();
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        Future<ResponseEntity<?>> duplicate = pool.submit(() -> store.execute(1L, "k-1", "subscription.create", REQUEST, this::create));
+
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(executions).hasValue(1);
+        assertThat(registry.get("idempotency.requests").tag("outcome", "replayed").counter().count()).isEqualTo(1);
+        pool.shutdown();
+    }
+
+    @Test
+    void blankOrOversizedKeyIsRejected() {
+        assertThatThrownBy(() -> store.execute(1L, " ", "subscription.create", REQUEST, this::create))
+                .isInstanceOf(IdempotencyException.class);
+        assertThatThrownBy(() -> store.execute(1L, "k".repeat(256), "subscription.create", REQUEST, this::create))
+                .isInstanceOf(IdempotencyException.class);
+        assertThat(executions).hasValue(0);
+    }
+
+    private ResponseEntity<Map<String, Integer>> create() {
+        return ResponseEntity.ok(Map.of("id", executions.incrementAndGet()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.roomih.orderapi.repository;
+
+import com.roomih.orderapi.EmbeddedPostgresExtension;
+import com.roomih.orderapi.RecordingStatementInspector;
+import com.roomih.orderapi.dto.PublicationDocument;
+import com.roomih.orderapi.dto.PublicationSummary;
+import com.roomih.orderapi.model.Publication;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset-выборки каталога на настоящей PostgreSQL: порядок при совпадающих ключах, фильтр по названию
+ * и то, что условие курсора становится границей индексного поиска, а не фильтром.
+ * Плюс потоковая выборка для перестройки поискового индекса.
+ */
+@DataJpaTest(properties = RecordingStatementInspector.PROPERTY)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ExtendWith(EmbeddedPostgresExtension.class)
+class PublicationRepositoryTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final int PAGE = 4;
+
+    @Autowired
+    private PublicationRepository publicationRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<PublicationSummary> all = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        // По три публикации на одну дату и повторяющиеся названия, чтобы курсор упирался в id
+        for (int i = 0; i < 15; i++) {
+            Publication publication = new Publication();
+            publication.setTitle(i % 5 == 0 ? "Science Journal" : "Издание " + (i % 4));
+            publication.setPricePerMonth(100.0);
+            publication.setCreatedAt(START.plusDays(i / 3));
+            publication.setContent("Текст " + i);
+            entityManager.persist(publication);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        all.addAll(publicationRepository.findAllSummariesOrderedById());
+        RecordingStatementInspector.SQL.clear();
+    }
+
+    @Test
+    void newestPagesWalkEveryRowOnceInBothDirections() {
+        List<PublicationSummary> expected = sorted(Comparator.comparing(PublicationSummary::createdAt)
+                .thenComparing(PublicationSummary::id).reversed());
+
+        List<PublicationSummary> forward = walk(publicationRepository.findNewestSummaries(Limit.of(PAGE)),
+                last -> publicationRepository.findNewestSummariesAfter(last.createdAt(), last.id(), Limit.of(PAGE)));
+        List<PublicationSummary> backward = walk(publicationRepository.findNewestSummariesBefore(
+                        START.minusDays(1), 0L, Limit.of(PAGE)),
+                last -> publicationRepository.findNewestSummariesBefore(last.createdAt(), last.id(), Limit.of(PAGE)));
+
+        assertThat(forward).containsExactlyElementsOf(expected);
+        assertThat(backward).containsExactlyElementsOf(expected.reversed());
+        assertThat(RecordingStatementInspector.SQL).noneMatch(sql -> sql.contains(" like "));
+    }
+
+    @Test
+    void titlePagesWalkEveryRowOnce() {
+        List<PublicationSummary> expected = sorted(Comparator.comparing(PublicationSummary::title)
+                .thenComparing(PublicationSummary::id));
+
+        List<PublicationSummary> forward = walk(publicationRepository.findSummariesOrderedByTitle(Limit.of(PAGE)),
+                last -> publicationRepository.findSummariesOrderedByTitleAfter(last.title(), last.id(), Limit.of(PAGE)));
+
+        assertThat(forward).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void searchKeepsTitleFilterWithCursor() {
+        List<PublicationSummary> found = walk(publicationRepository.findNewestSummaries("JOURNAL", Limit.of(2)),
+                last -> publicationRepository.findNewestSummariesAfter("JOURNAL", last.createdAt(), last.id(), Limit.of(2)));
+
+        assertThat(found).extracting(PublicationSummary::title).containsOnly("Science Journal").hasSize(3);
+        assertThat(RecordingStatementInspector.SQL).allMatch(sql -> sql.contains(" like "));
+    }
+
+    @Test
+    void cursorConditionSeeksTheIndex() {
+        PublicationSummary middle = all.get(7);
+        publicationRepository.findNewestSummariesAfter(middle.createdAt(), middle.id(), Limit.of(PAGE));
+        String sql = RecordingStatementInspector.SQL.get(RecordingStatementInspector.SQL.size() - 1);
+
+        // На пятнадцати строках планировщик иначе выбрал бы полное чтение таблицы
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class,
+                Timestamp.valueOf(middle.createdAt()), middle.id(), PAGE));
+
+        assertThat(plan).contains("idx_publications_created_at_id")
+                .containsPattern("Index Cond: \\(ROW\\(created_at, id\\) < ROW\\(");
+    }
+
+    @Test
+    void documentsStreamWithContentAndWithoutEntities() {
+        List<PublicationDocument> documents;
+        try (Stream<PublicationDocument> stream = publicationRepository.streamAllDocuments()) {
+            documents = stream.toList();
+        }
+
+        assertThat(documents).extracting(PublicationDocument::summary).containsExactlyInAnyOrderElementsOf(all);
+        assertThat(documents).allMatch(document -> document.content().startsWith("Текст "));
+        assertThat(RecordingStatementInspector.SQL).singleElement().asString().doesNotContain("join");
+    }
+
+    private static List<PublicationSummary> walk(List<PublicationSummary> first,
+                                                 Function<PublicationSummary, List<PublicationSummary>> next) {
+        List<PublicationSummary> rows = new ArrayList<>();
+        List<PublicationSummary> page = first;
+        while (!page.isEmpty()) {
+            rows.addAll(page);
+            page = next.apply(page.get(page.size() - 1));
+        }
+        return rows;
+    }
+
+    private List<PublicationSummary> sorted(Comparator<PublicationSummary> order) {
+        return all.stream().sorted(order).toList();
+    }
+}
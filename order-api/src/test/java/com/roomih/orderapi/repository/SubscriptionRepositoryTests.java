@@ -0,0 +1,136 @@
+package com.roomih.orderapi.repository;
+
+import com.roomih.orderapi.EmbeddedPostgresExtension;
+import com.roomih.orderapi.dto.Entitlement;
+import com.roomih.orderapi.dto.SubscriptionDto;
+import com.roomih.orderapi.mapper.SubscriptionMapper;
+import com.roomih.orderapi.mapper.SubscriptionMapperImpl;
+import com.roomih.orderapi.mapper.UserMapperImpl;
+import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.model.Subscription;
+import com.roomih.orderapi.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Число SQL-запросов при выдаче подписок пользователя не должно зависеть от их количества.
+ * Схема поднимается миграциями Flyway во встроенной PostgreSQL.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SubscriptionMapperImpl.class, UserMapperImpl.class})
+@ExtendWith(EmbeddedPostgresExtension.class)
+class SubscriptionRepositoryTests {
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    @Autowired
+    private SubscriptionMapper subscriptionMapper;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 25})
+    void listingLoadsPublicationsInTheSameQuery(int count) {
+        User user = seed(count);
+
+        Statistics statistics = statistics();
+        List<SubscriptionDto> all = subscriptionRepository.findByUserIdOrderByStartDateDesc(user.getId()).stream()
+                .map(subscriptionMapper::toSubscriptionDto)
+                .toList();
+
+        assertThat(all).hasSize(count);
+        assertThat(all).allSatisfy(dto -> assertThat(dto.getPublication().getTitle()).startsWith("Издание"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics = statistics();
+        List<SubscriptionDto> active = subscriptionRepository.findByUserIdAndActiveTrue(user.getId()).stream()
+                .map(subscriptionMapper::toSubscriptionDto)
+                .toList();
+
+        assertThat(active).hasSize(count);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void singleSubscriptionIsMappedWithoutExtraQueries() {
+        User user = seed(3);
+        Long id = subscriptionRepository.findByUserIdOrderByStartDateDesc(user.getId()).get(0).getId();
+        entityManager.clear();
+
+        Statistics statistics = statistics();
+        SubscriptionDto dto = subscriptionMapper.toSubscriptionDto(
+                subscriptionRepository.findByIdAndUserId(id, user.getId()).orElseThrow());
+
+        assertThat(dto.getUser().getEmail()).isEqualTo(user.getEmail());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void entitlementsComeFromOneQueryWithoutLoadingPublications() {
+        User user = seed(4);
+        Subscription cancelled = subscriptionRepository.findByUserIdOrderByStartDateDesc(user.getId()).get(0);
+        cancelled.setActive(false);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = statistics();
+        List<Entitlement> entitlements = subscriptionRepository.findActiveEntitlements(user.getId());
+
+        assertThat(entitlements).hasSize(3)
+                .extracting(Entitlement::publicationId)
+                .doesNotContain(cancelled.getPublication().getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private User seed(int count) {
+        User user = new User();
+        user.setEmail("reader" + count + "@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            Publication publication = new Publication();
+            publication.setTitle("Издание " + i);
+            publication.setPricePerMonth(100.0 + i);
+            entityManager.persist(publication);
+
+            Subscription subscription = new Subscription();
+            subscription.setUser(user);
+            subscription.setPublication(publication);
+            subscription.setStartDate(now.minusDays(i));
+            subscription.setEndDate(now.plusMonths(1));
+            subscription.setSubscriptionPeriod(1);
+            subscription.setTotalPrice(100.0 + i);
+            entityManager.persist(subscription);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return user;
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
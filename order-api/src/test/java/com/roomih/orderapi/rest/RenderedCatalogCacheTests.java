@@ -0,0 +1,36 @@
+package com.roomih.orderapi.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roomih.orderapi.event.PublicationChangedEvent;
+import com.roomih.orderapi.rest.RenderedCatalogCache.RenderedPage;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RenderedCatalogCacheTests {
+
+    private final RenderedCatalogCache cache = new RenderedCatalogCache(new ObjectMapper(), 100, 600);
+
+    @Test
+    void pageIsSerializedOnceUntilPublicationsChange() {
+        AtomicInteger loads = new AtomicInteger();
+
+        RenderedPage first = cache.get("|0|20", () -> Map.of("content", List.of("v" + loads.incrementAndGet())));
+        RenderedPage second = cache.get("|0|20", () -> Map.of("content", List.of("v" + loads.incrementAndGet())));
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first.body(), StandardCharsets.UTF_8)).isEqualTo("{\"content\":[\"v1\"]}");
+        assertThat(first.etag()).startsWith("\"").endsWith("\"");
+
+        cache.onPublicationChanged(PublicationChangedEvent.deleted(1L));
+        RenderedPage third = cache.get("|0|20", () -> Map.of("content", List.of("v" + loads.incrementAndGet())));
+
+        assertThat(loads).hasValue(2);
+        assertThat(third.etag()).isNotEqualTo(first.etag());
+    }
+}
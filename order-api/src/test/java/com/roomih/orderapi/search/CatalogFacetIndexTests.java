@@ -0,0 +1,139 @@
+package com.roomih.orderapi.search;
+
+import com.roomih.orderapi.dto.CatalogFacets;
+import com.roomih.orderapi.dto.CatalogFilter;
+import com.roomih.orderapi.dto.FacetedPage;
+import com.roomih.orderapi.dto.PublicationSummary;
+import com.roomih.orderapi.event.PublicationChangedEvent;
+import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.model.PublicationType;
+import com.roomih.orderapi.repository.PublicationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static com.roomih.orderapi.model.PublicationType.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CatalogFacetIndexTests {
+
+    private PublicationRepository repository;
+    private CatalogFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PublicationRepository.class);
+        when(repository.findAllSummariesOrderedById()).thenReturn(List.of(
+                summary(1L, "Vogue", MAGAZINE, 149.99, LocalDate.of(2024, 1, 10)),
+                summary(2L, "Forbes", MAGAZINE, 299.99, LocalDate.of(2024, 3, 1)),
+                summary(3L, "Коммерсантъ", NEWSPAPER, 199.99, LocalDate.of(2024, 3, 15)),
+                summary(4L, "Nature", SCIENTIFIC_PUBLICATION, 450.0, LocalDate.of(2024, 4, 1)),
+                summary(5L, "Известия", NEWSPAPER, 249.99, LocalDate.of(2024, 5, 1))));
+        index = new CatalogFacetIndex(repository, new double[]{200, 300, 400});
+        index.rebuild();
+    }
+
+    @Test
+    void unfilteredCatalogIsInIdOrderWithAllCounts() {
+        FacetedPage<PublicationSummary> page = index.query(CatalogFilter.none(), null, PageRequest.of(0, 2));
+
+        assertThat(page.getContent()).extracting(PublicationSummary::id).containsExactly(1L, 2L);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getFacets().types())
+                .containsEntry(MAGAZINE, 2).containsEntry(NEWSPAPER, 2)
+                .containsEntry(SCIENTIFIC_PUBLICATION, 1).containsEntry(JOURNAL, 0);
+        assertThat(page.getFacets().prices()).containsExactly(
+                new CatalogFacets.PriceBucket(0, 200.0, 2),
+                new CatalogFacets.PriceBucket(200, 300.0, 2),
+                new CatalogFacets.PriceBucket(300, 400.0, 0),
+                new CatalogFacets.PriceBucket(400, null, 1));
+    }
+
+    @Test
+    void eachFacetIgnoresItsOwnFilter() {
+        CatalogFilter filter = new CatalogFilter(null, Set.of(NEWSPAPER), 200.0, 500.0, null);
+
+        FacetedPage<PublicationSummary> page = index.query(filter, null, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(PublicationSummary::id).containsExactly(5L);
+        // По типам — всё, что проходит ценовой фильтр
+        assertThat(page.getFacets().types())
+                .containsEntry(MAGAZINE, 1).containsEntry(NEWSPAPER, 1).containsEntry(SCIENTIFIC_PUBLICATION, 1);
+        // По ценам — все газеты
+        assertThat(page.getFacets().prices()).extracting(CatalogFacets.PriceBucket::count).containsExactly(1, 1, 0, 0);
+    }
+
+    @Test
+    void createdAfterIncludesTheWholeDay() {
+        CatalogFilter filter = new CatalogFilter(null, null, null, null, LocalDate.of(2024, 3, 15));
+
+        assertThat(index.query(filter, null, PageRequest.of(0, 10)).getContent())
+                .extracting(PublicationSummary::id).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void searchResultsKeepRelevanceOrder() {
+        CatalogFilter filter = new CatalogFilter("журнал", Set.of(MAGAZINE, SCIENTIFIC_PUBLICATION), null, null, null);
+
+        FacetedPage<PublicationSummary> page = index.query(filter, new long[]{4L, 3L, 2L}, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(PublicationSummary::id).containsExactly(4L, 2L);
+        assertThat(page.getFacets().types()).containsEntry(NEWSPAPER, 1).containsEntry(MAGAZINE, 1);
+    }
+
+    @Test
+    void changesAreAppliedIncrementally() {
+        index.onPublicationChanged(PublicationChangedEvent.created(publication(6L, "Cell", JOURNAL, 350.0)));
+        index.onPublicationChanged(PublicationChangedEvent.updated(publication(1L, "Vogue", MAGAZINE, 320.0)));
+        index.onPublicationChanged(PublicationChangedEvent.deleted(3L));
+
+        FacetedPage<PublicationSummary> page = index.query(CatalogFilter.none(), null, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(PublicationSummary::id).containsExactly(1L, 2L, 4L, 5L, 6L);
+        assertThat(page.getFacets().types()).containsEntry(JOURNAL, 1).containsEntry(NEWSPAPER, 1);
+        assertThat(page.getFacets().prices()).extracting(CatalogFacets.PriceBucket::count).containsExactly(0, 2, 2, 1);
+        verify(repository, times(1)).findAllSummariesOrderedById();
+    }
+
+    @Test
+    void pageListIsSizedByMatchesNotByRequestedSize() {
+        FacetedPage<PublicationSummary> page = index.query(CatalogFilter.none(), null, PageRequest.of(0, Integer.MAX_VALUE));
+        FacetedPage<PublicationSummary> ranked = index.query(new CatalogFilter("журнал", null, null, null, null),
+                new long[]{2L, 1L}, PageRequest.of(0, Integer.MAX_VALUE));
+
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(ranked.getContent()).extracting(PublicationSummary::id).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void queryBeforeStartupBuildsIndexOnce() {
+        CatalogFacetIndex lazy = new CatalogFacetIndex(repository, new double[]{200});
+        clearInvocations(repository);
+
+        lazy.query(CatalogFilter.none(), null, PageRequest.of(0, 10));
+        lazy.query(CatalogFilter.none(), null, PageRequest.of(0, 10));
+
+        assertThat(lazy.isReady()).isTrue();
+        verify(repository, times(1)).findAllSummariesOrderedById();
+    }
+
+    private static PublicationSummary summary(Long id, String title, PublicationType type, double price, LocalDate created) {
+        return new PublicationSummary(id, title, null, type, price, created.atTime(12, 0));
+    }
+
+    private static Publication publication(Long id, String title, PublicationType type, double price) {
+        Publication publication = new Publication();
+        publication.setId(id);
+        publication.setTitle(title);
+        publication.setType(type);
+        publication.setPricePerMonth(price);
+        publication.setCreatedAt(LocalDateTime.of(2024, 6, 1, 12, 0));
+        return publication;
+    }
+}
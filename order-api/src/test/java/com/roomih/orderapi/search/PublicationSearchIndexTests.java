@@ -0,0 +1,131 @@
+package com.roomih.orderapi.search;
+
+import com.roomih.orderapi.dto.PublicationDocument;
+import com.roomih.orderapi.dto.SearchHit;
+import com.roomih.orderapi.event.PublicationChangedEvent;
+import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.repository.PublicationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PublicationSearchIndexTests {
+
+    private PublicationSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        PublicationRepository repository = mock(PublicationRepository.class);
+        when(repository.streamAllDocuments()).thenAnswer(invocation -> Stream.of(
+                document(1L, "National Geographic", "Журнал о природе и путешествиях", "Статьи о дикой природе"),
+                document(2L, "Наука и жизнь", "Научно-популярный журнал", "Новости науки, природа и техника"),
+                document(3L, "Forbes", "Деловой журнал", "Рейтинги <миллиардеров> и бизнес")));
+        index = new PublicationSearchIndex(repository);
+        index.rebuild();
+    }
+
+    @Test
+    void titleMatchesRankAboveContentMatches() {
+        Page<SearchHit> page = index.search("наука", PageRequest.of(0, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(page.getContent().get(0).publication().id()).isEqualTo(2L);
+
+        Page<SearchHit> nature = index.search("природа", PageRequest.of(0, 10));
+        assertThat(nature.getContent()).extracting(hit -> hit.publication().id()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void snippetIsEscapedAndHighlighted() {
+        SearchHit hit = index.search("рейтинги", PageRequest.of(0, 10)).getContent().get(0);
+
+        assertThat(hit.snippet()).isEqualTo("<mark>Рейтинги</mark> &lt;миллиардеров&gt; и бизнес");
+    }
+
+    @Test
+    void unfinishedLastWordMatchesAsPrefix() {
+        assertThat(index.search("Geog", PageRequest.of(0, 10)).getContent())
+                .extracting(hit -> hit.publication().id()).containsExactly(1L);
+        assertThat(index.search("Geog ", PageRequest.of(0, 10)).getContent()).isEmpty();
+    }
+
+    @Test
+    void changesAreAppliedIncrementally() {
+        index.onPublicationChanged(PublicationChangedEvent.created(
+                publication(4L, "Вокруг света", "Журнал о путешествиях", "Маршруты и путешествия")));
+        index.onPublicationChanged(PublicationChangedEvent.deleted(1L));
+
+        assertThat(index.search("путешествия", PageRequest.of(0, 10)).getContent())
+                .extracting(hit -> hit.publication().id()).containsExactly(4L);
+        assertThat(index.search("geographic", PageRequest.of(0, 10)).getTotalElements()).isZero();
+    }
+
+    @Test
+    void pagesFollowRanking() {
+        Page<SearchHit> first = index.search("журнал", PageRequest.of(0, 2));
+        Page<SearchHit> second = index.search("журнал", PageRequest.of(1, 2));
+
+        assertThat(first.getTotalElements()).isEqualTo(3);
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(second.getContent()).hasSize(1);
+        assertThat(second.getContent().get(0).score()).isLessThanOrEqualTo(first.getContent().get(1).score());
+    }
+
+    @Test
+    void concurrentSearchesDoNotShareScores() throws Exception {
+        List<Long> nature = ids(index.search("природа", PageRequest.of(0, 10)));
+        List<Long> journals = ids(index.search("журнал", PageRequest.of(0, 10)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        if (!ids(index.search("природа", PageRequest.of(0, 10))).equals(nature)
+                                || !ids(index.search("журнал", PageRequest.of(0, 10))).equals(journals)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                });
+            }
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<Long> ids(Page<SearchHit> page) {
+        return page.getContent().stream().map(hit -> hit.publication().id()).toList();
+    }
+
+    private static PublicationDocument document(Long id, String title, String description, String content) {
+        return new PublicationDocument(id, title, description, null, 100.0, null, content);
+    }
+
+    private static Publication publication(Long id, String title, String description, String content) {
+        Publication publication = new Publication();
+        publication.setId(id);
+        publication.setTitle(title);
+        publication.setDescription(description);
+        publication.setContent(content);
+        publication.setPricePerMonth(100.0);
+        return publication;
+    }
+}
@@ -0,0 +1,29 @@
+package com.roomih.orderapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextAnalyzerTests {
+
+    @Test
+    void russianInflectionsShareTerm() {
+        assertThat(TextAnalyzer.terms("Журналы журнала журналов ЖУРНАЛ")).containsOnly("журнал");
+        assertThat(TextAnalyzer.terms("новости о новостях")).containsExactly("новост", "новост");
+    }
+
+    @Test
+    void yoIsFoldedAndStopWordsAreDropped() {
+        assertThat(TextAnalyzer.terms("Всё о ёлках и елках")).containsExactly("елк", "елк");
+        assertThat(TextAnalyzer.terms("The Economist and the stories")).containsExactly("economist", "story");
+    }
+
+    @Test
+    void offsetsPointIntoOriginalText() {
+        String text = "«Наука и жизнь», 2024";
+        StringBuilder tokens = new StringBuilder();
+        TextAnalyzer.analyze(text, (term, start, end) -> tokens.append(text, start, end).append('/'));
+
+        assertThat(tokens.toString()).isEqualTo("Наука/жизнь/2024/");
+    }
+}
@@ -0,0 +1,101 @@
+package com.roomih.orderapi.search;
+
+import com.roomih.orderapi.dto.PublicationPopularity;
+import com.roomih.orderapi.dto.Suggestion;
+import com.roomih.orderapi.event.PublicationChangedEvent;
+import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.repository.PublicationRepository;
+import com.roomih.orderapi.repository.SubscriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TitleSuggesterTests {
+
+    private SubscriptionRepository subscriptionRepository;
+    private TitleSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        PublicationRepository publicationRepository = mock(PublicationRepository.class);
+        subscriptionRepository = mock(SubscriptionRepository.class);
+        when(publicationRepository.findAllTitles()).thenReturn(List.of(
+                new Suggestion(1L, "National Geographic"),
+                new Suggestion(2L, "Nature"),
+                new Suggestion(3L, "The New York Times"),
+                new Suggestion(4L, "Новый мир"),
+                new Suggestion(5L, "Ёж и ёлка")));
+        when(subscriptionRepository.countActiveByPublication()).thenReturn(List.of(
+                new PublicationPopularity(2L, 40L),
+                new PublicationPopularity(3L, 15L),
+                new PublicationPopularity(1L, 5L)));
+        suggester = new TitleSuggester(publicationRepository, subscriptionRepository);
+        suggester.rebuild();
+    }
+
+    @Test
+    void mostPopularTitlesComeFirst() {
+        assertThat(titles("na")).containsExactly("Nature", "National Geographic");
+        assertThat(titles("N")).containsExactly("Nature", "The New York Times", "National Geographic");
+        assertThat(suggester.suggest("n", 2)).extracting(Suggestion::id).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void limitIsClampedToAllowedRange() {
+        assertThat(suggester.suggest("n", -1)).isEmpty();
+        assertThat(suggester.suggest("n", 0)).isEmpty();
+        assertThat(suggester.suggest("n", Integer.MAX_VALUE)).hasSize(3);
+    }
+
+    @Test
+    void anyWordOfTitleMatches() {
+        assertThat(titles("geo")).containsExactly("National Geographic");
+        assertThat(titles("york t")).containsExactly("The New York Times");
+        assertThat(titles("ork")).isEmpty();
+    }
+
+    @Test
+    void prefixIsNormalized() {
+        assertThat(titles("  НОВЫЙ ")).containsExactly("Новый мир");
+        assertThat(titles("елк")).containsExactly("Ёж и ёлка");
+        assertThat(titles("")).isEmpty();
+    }
+
+    @Test
+    void catalogChangesAndPopularityAreApplied() {
+        Publication renamed = new Publication();
+        renamed.setId(1L);
+        renamed.setTitle("Geo");
+        suggester.onPublicationChanged(PublicationChangedEvent.updated(renamed));
+        suggester.onPublicationChanged(PublicationChangedEvent.deleted(2L));
+
+        assertThat(titles("na")).isEmpty();
+        assertThat(titles("ge")).containsExactly("Geo");
+
+        when(subscriptionRepository.countActiveByPublication()).thenReturn(List.of(
+                new PublicationPopularity(4L, 100L)));
+        suggester.refreshPopularity();
+        assertThat(titles("н")).containsExactly("Новый мир");
+        assertThat(titles("t")).containsExactly("The New York Times");
+    }
+
+    @Test
+    void prefixLongerThanIndexedDepthIsCheckedAgainstTitle() {
+        Publication longTitle = new Publication();
+        longTitle.setId(6L);
+        longTitle.setTitle("Journal of Experimental Biology and Medicine");
+        suggester.onPublicationChanged(PublicationChangedEvent.created(longTitle));
+
+        assertThat(titles("journal of experimental biology and medicine")).containsExactly(longTitle.getTitle());
+        assertThat(titles("journal of experimental biology and zoology")).isEmpty();
+    }
+
+    private List<String> titles(String prefix) {
+        return suggester.suggest(prefix, TitleSuggester.MAX_SUGGESTIONS).stream().map(Suggestion::title).toList();
+    }
+}
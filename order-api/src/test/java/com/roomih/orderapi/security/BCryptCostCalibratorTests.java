@@ -0,0 +1,25 @@
+package com.roomih.orderapi.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BCryptCostCalibratorTests {
+
+    @Test
+    void highestStrengthWithinBudgetIsChosen() {
+        // 4 мс на стоимости 8: 10 → 16 мс, 12 → 64 мс, 13 → 128 мс
+        assertThat(BCryptCostCalibrator.choose(4, 100, 10, 14)).isEqualTo(12);
+        assertThat(BCryptCostCalibrator.choose(4, 1000, 10, 14)).isEqualTo(14);
+    }
+
+    @Test
+    void slowHardwareNeverGoesBelowMinimum() {
+        assertThat(BCryptCostCalibrator.choose(50, 100, 10, 14)).isEqualTo(10);
+    }
+
+    @Test
+    void configuredStrengthSkipsCalibration() {
+        assertThat(new BCryptCostCalibrator(11, 1, 4, 31).strength()).isEqualTo(11);
+    }
+}
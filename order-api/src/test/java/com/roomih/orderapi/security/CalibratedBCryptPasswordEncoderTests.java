@@ -0,0 +1,78 @@
+package com.roomih.orderapi.security;
+
+import com.roomih.orderapi.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class CalibratedBCryptPasswordEncoderTests {
+
+    @Test
+    void lowerOrMuchHigherStrengthNeedsRehash() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+    }
+
+    @Test
+    void neighbouringCalibrationsDoNotRehashBackAndForth() {
+        // Два экземпляра выбрали 5 и 6: хеш со стоимостью 6 устраивает оба, и после одного перехеширования он больше не меняется
+        CalibratedBCryptPasswordEncoder five = new CalibratedBCryptPasswordEncoder(5);
+        CalibratedBCryptPasswordEncoder six = new CalibratedBCryptPasswordEncoder(6);
+
+        assertThat(five.upgradeEncoding(six.encode("secret"))).isFalse();
+        assertThat(six.upgradeEncoding(five.encode("secret"))).isTrue();
+        assertThat(six.upgradeEncoding(six.encode("secret"))).isFalse();
+    }
+
+    @Test
+    void loginRehashesLegacyHashWithPrefixAndCurrentStrength() {
+        PasswordEncoder encoder = delegating(5);
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("user@example.com");
+        // Хеш из старой конфигурации: без {bcrypt} и со стоимостью 4
+        user.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+        user.setRole("USER");
+        UserDetailsPasswordService passwordService = mock(UserDetailsPasswordService.class);
+        when(passwordService.updatePassword(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(email -> new CustomUserDetails(user));
+        provider.setUserDetailsPasswordService(passwordService);
+        provider.setPasswordEncoder(encoder);
+        provider.authenticate(new UsernamePasswordAuthenticationToken("user@example.com", "secret"));
+
+        verify(passwordService).updatePassword(any(), startsWith("{bcrypt}$2a$05$"));
+    }
+
+    @Test
+    void hashWithCurrentStrengthIsLeftAlone() {
+        PasswordEncoder encoder = delegating(5);
+        String current = encoder.encode("secret");
+
+        assertThat(encoder.matches("secret", current)).isTrue();
+        assertThat(encoder.upgradeEncoding(current)).isFalse();
+        assertThat(delegating(6).upgradeEncoding(current)).isTrue();
+    }
+
+    private static PasswordEncoder delegating(int strength) {
+        PasswordEncoder bcrypt = new CalibratedBCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+}
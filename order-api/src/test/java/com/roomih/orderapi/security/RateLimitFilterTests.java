@@ -0,0 +1,98 @@
+package com.roomih.orderapi.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.roomih.orderapi.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTests {
+
+    private static final String SECRET = "v9y$B&E)H@MbQeThWmZq4t7w!z%C*F-JaNdRfUjXn2r5u8x/A?D(G+KbPeShVkYp";
+
+    private TokenProvider tokenProvider;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new TokenProvider(SECRET, 15, 100);
+        RateLimitProperties properties = new RateLimitProperties(true, 60, 1000, Map.of(
+                "auth", new RateLimitProperties.Limit(2, 0.1),
+                "default", new RateLimitProperties.Limit(100, 100)));
+        RateLimiter rateLimiter = new RateLimiter(properties, new SimpleMeterRegistry());
+        filter = new RateLimitFilter(rateLimiter, tokenProvider, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void routesAreGrouped() {
+        assertThat(RateLimitFilter.group(request("POST", "/api/auth/authenticate"))).isEqualTo("auth");
+        assertThat(RateLimitFilter.group(request("POST", "/api/subscriptions/create-from-cart"))).isEqualTo("checkout");
+        assertThat(RateLimitFilter.group(request("GET", "/api/publications/search"))).isEqualTo("catalog");
+        assertThat(RateLimitFilter.group(request("PUT", "/api/publications/5"))).isEqualTo("admin");
+        assertThat(RateLimitFilter.group(request("GET", "/api/users/user@example.com"))).isEqualTo("admin");
+        assertThat(RateLimitFilter.group(request("GET", "/api/users/me"))).isEqualTo("default");
+        assertThat(RateLimitFilter.group(request("GET", "/api/subscriptions/check/1"))).isEqualTo("default");
+    }
+
+    @Test
+    void exhaustedClientGets429WithHeaders() throws Exception {
+        MockHttpServletResponse first = send(request("POST", "/api/auth/authenticate"));
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("RateLimit-Limit")).isEqualTo("2");
+        assertThat(first.getHeader("RateLimit-Remaining")).isEqualTo("1");
+        assertThat(first.getHeader("RateLimit-Policy")).isEqualTo("2;w=20");
+        send(request("POST", "/api/auth/authenticate"));
+
+        MockHttpServletResponse throttled = send(request("POST", "/api/auth/authenticate"));
+
+        assertThat(throttled.getStatus()).isEqualTo(429);
+        assertThat(throttled.getHeader("Retry-After")).isEqualTo("10");
+        assertThat(throttled.getHeader("RateLimit-Remaining")).isEqualTo("0");
+        assertThat(throttled.getContentAsString()).contains("\"status\":429");
+    }
+
+    @Test
+    void authenticatedUsersHaveTheirOwnBucket() throws Exception {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("user@example.com");
+        user.setRole("USER");
+        String token = tokenProvider.generate(user);
+        send(request("POST", "/api/auth/refresh"));
+        send(request("POST", "/api/auth/refresh"));
+
+        MockHttpServletRequest withToken = request("POST", "/api/auth/refresh");
+        withToken.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletRequest forged = request("POST", "/api/auth/refresh");
+        forged.addHeader("Authorization", "Bearer not-a-token");
+
+        assertThat(send(withToken).getStatus()).isEqualTo(200);
+        assertThat(send(forged).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void nonApiRequestsAreNotLimited() throws Exception {
+        assertThat(send(request("GET", "/swagger-ui.html")).getHeader("RateLimit-Limit")).isNull();
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setServletPath(uri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
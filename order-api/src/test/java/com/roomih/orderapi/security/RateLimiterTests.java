@@ -0,0 +1,99 @@
+package com.roomih.orderapi.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTests {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private SimpleMeterRegistry registry;
+    private RateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        RateLimitProperties properties = new RateLimitProperties(true, 60, 1000, Map.of(
+                "auth", new RateLimitProperties.Limit(3, 0.5),
+                "default", new RateLimitProperties.Limit(10, 10)));
+        limiter = new RateLimiter(properties, registry, clock::get);
+    }
+
+    @Test
+    void burstIsAllowedThenThrottledUntilRefill() {
+        assertThat(limiter.tryAcquire("auth", "ip:1").remaining()).isEqualTo(2);
+        assertThat(limiter.tryAcquire("auth", "ip:1").remaining()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("auth", "ip:1").remaining()).isZero();
+
+        RateLimiter.Decision throttled = limiter.tryAcquire("auth", "ip:1");
+        assertThat(throttled.allowed()).isFalse();
+        assertThat(throttled.retryAfterSeconds()).isEqualTo(2);
+        assertThat(throttled.resetSeconds()).isEqualTo(6);
+        assertThat(registry.get("http.ratelimit.throttled").tag("group", "auth").counter().count()).isEqualTo(1);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(limiter.tryAcquire("auth", "ip:1").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("auth", "ip:1").allowed()).isFalse();
+    }
+
+    @Test
+    void bucketsAreIndependentPerClientAndGroup() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("auth", "ip:1");
+        }
+
+        assertThat(limiter.tryAcquire("auth", "ip:1").allowed()).isFalse();
+        assertThat(limiter.tryAcquire("auth", "ip:2").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("default", "ip:1").allowed()).isTrue();
+    }
+
+    @Test
+    void unknownGroupFallsBackToDefault() {
+        RateLimiter.Decision decision = limiter.tryAcquire("reports", "user:7");
+
+        assertThat(decision.policy().capacity()).isEqualTo(10);
+        assertThat(decision.policy().windowSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    void nonPositiveLimitsAreRejected() {
+        RateLimitProperties properties = new RateLimitProperties(true, 60, 1000, Map.of(
+                "default", new RateLimitProperties.Limit(10, 0),
+                "auth", new RateLimitProperties.Limit(0, 1)));
+
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            assertThat(factory.getValidator().validate(properties))
+                    .extracting(violation -> violation.getPropertyPath().toString())
+                    .containsExactlyInAnyOrder("groups[default].refillPerSecond", "groups[auth].capacity");
+        }
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedCapacity() throws Exception {
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> {
+                if (limiter.tryAcquire("default", "user:1").allowed()) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Часы стоят: пройти может ровно ёмкость ведра
+        assertThat(allowed).hasValue(10);
+    }
+}
@@ -0,0 +1,152 @@
+package com.roomih.orderapi.security;
+
+import com.roomih.orderapi.EmbeddedPostgresExtension;
+import com.roomih.orderapi.dto.AuthResponse;
+import com.roomih.orderapi.event.TokensRevokedEvent;
+import com.roomih.orderapi.exception.InvalidRefreshTokenException;
+import com.roomih.orderapi.model.User;
+import com.roomih.orderapi.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(EmbeddedPostgresExtension.class)
+class RefreshTokenServiceTests {
+
+    private static final String SECRET = "v9y$B&E)H@MbQeThWmZq4t7w!z%C*F-JaNdRfUjXn2r5u8x/A?D(G+KbPeShVkYp";
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(EmbeddedPostgresExtension.dataSource());
+
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private SimpleMeterRegistry registry;
+    private RefreshTokenService service;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (id, email, password, role) VALUES (1, 'reader@example.com', 'secret', 'USER')");
+        user = new User();
+        user.setId(1L);
+        user.setEmail("reader@example.com");
+        user.setRole("USER");
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            user.setTokenVersion(jdbcTemplate.queryForObject("SELECT token_version FROM users WHERE id = 1", Integer.class));
+            return Optional.of(user);
+        });
+        registry = new SimpleMeterRegistry();
+        ApplicationEventPublisher publisher = events::add;
+        service = new RefreshTokenService(jdbcTemplate, userRepository, new TokenProvider(SECRET, 15, 100),
+                publisher, registry, 30, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void refreshTokenIsRotatedAndStoredOnlyAsHash() {
+        String issued = service.issue(user);
+
+        AuthResponse rotated = service.rotate(issued);
+
+        assertThat(rotated.accessToken()).isNotBlank();
+        assertThat(rotated.refreshToken()).isNotEqualTo(issued);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM refresh_tokens WHERE used_at IS NULL", Integer.class))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT length(token_hash) FROM refresh_tokens", Integer.class))
+                .containsOnly(32);
+        assertThat(service.rotate(rotated.refreshToken()).refreshToken()).isNotBlank();
+    }
+
+    @Test
+    void reusedTokenRevokesEverySessionOfTheUser() {
+        String issued = service.issue(user);
+        String current = service.rotate(issued).refreshToken();
+        // Повтор уже после окна для параллельных вкладок
+        jdbcTemplate.update("UPDATE refresh_tokens SET used_at = now() - interval '1 minute' WHERE used_at IS NOT NULL");
+
+        assertThatThrownBy(() -> service.rotate(issued))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT token_version FROM users WHERE id = 1", Integer.class)).isEqualTo(1);
+        assertThat(events).containsExactly(new TokensRevokedEvent(1L));
+        assertThatThrownBy(() -> service.rotate(current))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        assertThat(registry.get("auth.refresh").tag("outcome", "reused").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tabsRefreshingTheSameTokenTogetherStayLoggedIn() throws Exception {
+        String shared = service.issue(user);
+        int tabs = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(tabs);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<AuthResponse>> refreshes = new ArrayList<>();
+        for (int i = 0; i < tabs; i++) {
+            refreshes.add(executor.submit(() -> {
+                start.await();
+                return service.rotate(shared);
+            }));
+        }
+        start.countDown();
+
+        List<String> issued = new ArrayList<>();
+        for (Future<AuthResponse> refresh : refreshes) {
+            issued.add(refresh.get().refreshToken());
+        }
+        executor.shutdown();
+
+        assertThat(issued).doesNotHaveDuplicates().doesNotContain(shared);
+        assertThat(events).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT token_version FROM users WHERE id = 1", Integer.class)).isZero();
+        assertThat(registry.get("auth.refresh").tag("outcome", "rotated").counter().count()).isEqualTo(1);
+        assertThat(registry.get("auth.refresh").tag("outcome", "concurrent").counter().count()).isEqualTo(tabs - 1);
+        // Каждая вкладка продолжает со своим токеном
+        for (String token : issued) {
+            assertThat(service.rotate(token).accessToken()).isNotBlank();
+        }
+    }
+
+    @Test
+    void tokensIssuedBeforeRevocationAreRejected() {
+        String issued = service.issue(user);
+        jdbcTemplate.update("UPDATE users SET token_version = token_version + 1 WHERE id = 1");
+
+        assertThatThrownBy(() -> service.rotate(issued))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessageContaining("отозван");
+    }
+
+    @Test
+    void unknownAndExpiredTokensAreRejected() {
+        String issued = service.issue(user);
+        jdbcTemplate.update("UPDATE refresh_tokens SET expires_at = now() - interval '1 minute'");
+
+        assertThatThrownBy(() -> service.rotate(issued)).isInstanceOf(InvalidRefreshTokenException.class);
+        assertThatThrownBy(() -> service.rotate("unknown")).isInstanceOf(InvalidRefreshTokenException.class);
+
+        service.deleteExpired();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM refresh_tokens", Integer.class)).isZero();
+    }
+}
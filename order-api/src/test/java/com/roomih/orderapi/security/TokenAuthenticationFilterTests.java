@@ -0,0 +1,125 @@
+package com.roomih.orderapi.security;
+
+import com.roomih.orderapi.model.User;
+import com.roomih.orderapi.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class TokenAuthenticationFilterTests {
+
+    private static final String SECRET = "v9y$B&E)H@MbQeThWmZq4t7w!z%C*F-JaNdRfUjXn2r5u8x/A?D(G+KbPeShVkYp";
+
+    private UserRepository userRepository;
+    private TokenVersionCache tokenVersionCache;
+    private TokenAuthenticationFilter filter;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("user@example.com");
+        user.setPassword("hash");
+        user.setRole("USER");
+
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+
+        TokenProvider tokenProvider = new TokenProvider(SECRET, 15, 100);
+        token = tokenProvider.generate(user);
+
+        tokenVersionCache = new TokenVersionCache(userRepository, 100, 300);
+        filter = new TokenAuthenticationFilter(tokenProvider, tokenVersionCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void principalIsBuiltFromClaims() throws Exception {
+        authenticatedGet();
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isEqualTo(new AuthenticatedUser(1L, "user@example.com", "USER"));
+        assertThat(authentication.getName()).isEqualTo("user@example.com");
+        assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("USER");
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void repeatedAuthenticatedRequestDoesNotQueryUsers() throws Exception {
+        authenticatedGet();
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+        clearInvocations(userRepository);
+
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse response = authenticatedGet();
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        }
+
+        verifyNoInteractions(userRepository);
+        assertThat(tokenVersionCache.missCount()).isEqualTo(1);
+        assertThat(tokenVersionCache.hitCount()).isEqualTo(5);
+    }
+
+    @Test
+    void revokedTokenIsNotAuthenticated() throws Exception {
+        authenticatedGet();
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(1));
+        tokenVersionCache.evict(1L);
+
+        authenticatedGet();
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void deletedUserIsCachedAsGone() throws Exception {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 3; i++) {
+            authenticatedGet();
+            assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        }
+
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+        assertThat(tokenVersionCache.currentVersion(1L)).isNull();
+    }
+
+    @Test
+    void publicCatalogRequestSkipsTokenProcessing() throws Exception {
+        MockHttpServletResponse response = authenticatedGet("/api/publications");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(userRepository);
+    }
+
+    private MockHttpServletResponse authenticatedGet() throws Exception {
+        return authenticatedGet("/api/users/me");
+    }
+
+    private MockHttpServletResponse authenticatedGet(String uri) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setServletPath(uri);
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,60 @@
+package com.roomih.orderapi.security;
+
+import com.roomih.orderapi.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenProviderTests {
+
+    private static final String SECRET = "v9y$B&E)H@MbQeThWmZq4t7w!z%C*F-JaNdRfUjXn2r5u8x/A?D(G+KbPeShVkYp";
+
+    private TokenProvider tokenProvider;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("user@example.com");
+        user.setPassword("hash");
+        user.setRole("USER");
+        CustomUserDetails details = new CustomUserDetails(user);
+
+        tokenProvider = new TokenProvider(SECRET, 15, 100);
+        token = tokenProvider.generate(new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()));
+    }
+
+    @Test
+    void repeatedValidationReusesVerifiedClaims() {
+        Optional<Jws<Claims>> first = tokenProvider.validateTokenAndGetJws(token);
+        Optional<Jws<Claims>> second = tokenProvider.validateTokenAndGetJws(token);
+
+        assertThat(first).isPresent();
+        assertThat(second).containsSame(first.get());
+        assertThat(second.get().getPayload().getSubject()).isEqualTo("user@example.com");
+    }
+
+    @Test
+    void expirationComesFromConfiguration() {
+        Claims claims = tokenProvider.validateTokenAndGetJws(token).orElseThrow().getPayload();
+
+        assertThat(Duration.between(claims.getIssuedAt().toInstant(), claims.getExpiration().toInstant()))
+                .isEqualTo(Duration.ofMinutes(15));
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        tokenProvider.validateTokenAndGetJws(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(tokenProvider.validateTokenAndGetJws(tampered)).isEmpty();
+    }
+}
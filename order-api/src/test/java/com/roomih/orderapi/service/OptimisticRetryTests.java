@@ -0,0 +1,75 @@
+package com.roomih.orderapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OptimisticRetryTests {
+
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry registry;
+    private OptimisticRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        registry = new SimpleMeterRegistry();
+        retry = new OptimisticRetry(new TransactionTemplate(transactionManager), registry, 3, 0);
+    }
+
+    @Test
+    void conflictIsRetriedInNewTransaction() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute("subscription.period", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Subscription", 1L);
+            }
+            return "saved";
+        });
+
+        assertThat(result).isEqualTo("saved");
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        assertThat(registry.get("optimistic.lock.conflicts").tag("operation", "subscription.period").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void conflictIsRethrownAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.run("cart.clear", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Cart", 1L);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(registry.get("optimistic.lock.exhausted").tag("operation", "cart.clear").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void otherErrorsAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.run("subscription.cancel", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+}
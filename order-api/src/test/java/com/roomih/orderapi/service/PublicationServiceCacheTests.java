@@ -0,0 +1,93 @@
+package com.roomih.orderapi.service;
+
+import com.roomih.orderapi.config.CacheConfig;
+import com.roomih.orderapi.dto.PublicationDocument;
+import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.repository.PublicationRepository;
+import com.roomih.orderapi.search.CatalogFacetIndex;
+import com.roomih.orderapi.search.PublicationSearchIndex;
+import com.roomih.orderapi.service.impl.PublicationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig({CacheConfig.class, PublicationServiceImpl.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class PublicationServiceCacheTests {
+
+    @Autowired
+    private PublicationService publicationService;
+
+    @MockBean
+    private PublicationRepository publicationRepository;
+
+    @MockBean
+    private PublicationSearchIndex searchIndex;
+
+    @MockBean
+    private CatalogFacetIndex facetIndex;
+
+    @MockBean
+    private OptimisticRetry optimisticRetry;
+
+    @BeforeEach
+    void runRetriedActionsDirectly() {
+        when(optimisticRetry.execute(any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
+    @Test
+    void publicationIsReadThrough() {
+        when(publicationRepository.findDocumentById(1L)).thenReturn(Optional.of(document(1L, "Nature")));
+
+        PublicationDocument first = publicationService.getPublicationById(1L);
+        PublicationDocument second = publicationService.getPublicationById(1L);
+
+        assertThat(second).isSameAs(first);
+        verify(publicationRepository, times(1)).findDocumentById(1L);
+    }
+
+    @Test
+    void updateEvictsOnlyChangedPublication() {
+        when(publicationRepository.findDocumentById(1L)).thenReturn(Optional.of(document(1L, "Nature")));
+        when(publicationRepository.findDocumentById(2L)).thenReturn(Optional.of(document(2L, "Science")));
+        when(publicationRepository.findById(1L)).thenReturn(Optional.of(publication(1L, "Nature")));
+        when(publicationRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PublicationDocument cached = publicationService.getPublicationById(1L);
+        publicationService.getPublicationById(2L);
+
+        Publication updated = publicationService.updatePublication(1L, publication(1L, "Nature Physics"));
+        updated.setTitle("Изменено после сохранения");
+
+        publicationService.getPublicationById(1L);
+        publicationService.getPublicationById(2L);
+
+        // Обновление правит свою сущность, а не закэшированную запись
+        assertThat(cached.title()).isEqualTo("Nature");
+        verify(publicationRepository, times(1)).findById(1L);
+        verify(publicationRepository, times(2)).findDocumentById(1L);
+        verify(publicationRepository, times(1)).findDocumentById(2L);
+    }
+
+    private static PublicationDocument document(Long id, String title) {
+        return new PublicationDocument(id, title, null, null, 100.0, null, "content");
+    }
+
+    private static Publication publication(Long id, String title) {
+        Publication publication = new Publication();
+        publication.setId(id);
+        publication.setTitle(title);
+        publication.setPricePerMonth(100.0);
+        return publication;
+    }
+}
@@ -0,0 +1,116 @@
+package com.roomih.orderapi.service;
+
+import com.roomih.orderapi.dto.CatalogOrder;
+import com.roomih.orderapi.dto.CursorPage;
+import com.roomih.orderapi.dto.PublicationSummary;
+import com.roomih.orderapi.exception.InvalidCursorException;
+import com.roomih.orderapi.model.PublicationType;
+import com.roomih.orderapi.repository.PublicationRepository;
+import com.roomih.orderapi.search.CatalogFacetIndex;
+import com.roomih.orderapi.search.PublicationSearchIndex;
+import com.roomih.orderapi.service.impl.PublicationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PublicationServiceScrollTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_000);
+
+    private PublicationRepository publicationRepository;
+    private PublicationService publicationService;
+
+    @BeforeEach
+    void setUp() {
+        publicationRepository = mock(PublicationRepository.class);
+        publicationService = new PublicationServiceImpl(publicationRepository, mock(ApplicationEventPublisher.class),
+                mock(PublicationSearchIndex.class), mock(CatalogFacetIndex.class), mock(OptimisticRetry.class));
+    }
+
+    @Test
+    void firstPageHasOnlyNextCursorAndNoCount() {
+        when(publicationRepository.findNewestSummaries(Limit.of(3)))
+                .thenReturn(List.of(summary(5, 0), summary(4, 1), summary(3, 2)));
+
+        CursorPage<PublicationSummary> page = publicationService.scrollPublications(null, CatalogOrder.NEWEST, null, 2, false);
+
+        assertThat(page.content()).extracting(PublicationSummary::id).containsExactly(5L, 4L);
+        assertThat(page.prevCursor()).isNull();
+        assertThat(page.totalElements()).isNull();
+        CatalogCursor next = CatalogCursor.decode(page.nextCursor());
+        assertThat(next.backward()).isFalse();
+        assertThat(next.id()).isEqualTo(4L);
+        assertThat(next.createdAt()).isEqualTo(NOW.minusMinutes(1));
+        verify(publicationRepository, never()).count();
+    }
+
+    @Test
+    void nextCursorContinuesAfterLastRow() {
+        String cursor = CatalogCursor.after(CatalogOrder.NEWEST, summary(4, 1)).encode();
+        when(publicationRepository.findNewestSummariesAfter(NOW.minusMinutes(1), 4L, Limit.of(3)))
+                .thenReturn(List.of(summary(3, 2), summary(2, 3)));
+
+        CursorPage<PublicationSummary> page = publicationService.scrollPublications(null, CatalogOrder.NEWEST, cursor, 2, false);
+
+        assertThat(page.content()).extracting(PublicationSummary::id).containsExactly(3L, 2L);
+        assertThat(page.nextCursor()).isNull();
+        assertThat(CatalogCursor.decode(page.prevCursor()))
+                .isEqualTo(CatalogCursor.before(CatalogOrder.NEWEST, summary(3, 2)));
+    }
+
+    @Test
+    void previousCursorReturnsRowsInDisplayOrder() {
+        String cursor = CatalogCursor.before(CatalogOrder.TITLE, titled(7, "Nature")).encode();
+        when(publicationRepository.findSummariesOrderedByTitleBefore("Nature", 7L, Limit.of(3)))
+                .thenReturn(List.of(titled(3, "Forbes"), titled(9, "Economist")));
+
+        CursorPage<PublicationSummary> page = publicationService.scrollPublications(null, CatalogOrder.NEWEST, cursor, 2, true);
+
+        assertThat(page.content()).extracting(PublicationSummary::title).containsExactly("Economist", "Forbes");
+        assertThat(page.prevCursor()).isNull();
+        assertThat(CatalogCursor.decode(page.nextCursor()))
+                .isEqualTo(CatalogCursor.after(CatalogOrder.TITLE, titled(3, "Forbes")));
+        verify(publicationRepository).count();
+    }
+
+    @Test
+    void searchQueryFiltersByTitle() {
+        when(publicationRepository.findNewestSummaries("forbes", Limit.of(3))).thenReturn(List.of(summary(2, 0)));
+
+        CursorPage<PublicationSummary> page = publicationService.scrollPublications("forbes", CatalogOrder.NEWEST, null, 2, true);
+
+        assertThat(page.content()).extracting(PublicationSummary::id).containsExactly(2L);
+        verify(publicationRepository).countByTitleContaining("forbes");
+        verify(publicationRepository, never()).findNewestSummaries(any(Limit.class));
+    }
+
+    @Test
+    void titleWithSeparatorSurvivesRoundTrip() {
+        CatalogCursor cursor = CatalogCursor.after(CatalogOrder.TITLE, titled(1, "Наука | Жизнь"));
+
+        assertThat(CatalogCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> publicationService.scrollPublications(null, CatalogOrder.NEWEST, "not-a-cursor", 2, false))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static PublicationSummary summary(long id, int minutesAgo) {
+        return new PublicationSummary(id, "Title " + id, null, PublicationType.MAGAZINE, 100.0, NOW.minusMinutes(minutesAgo));
+    }
+
+    private static PublicationSummary titled(long id, String title) {
+        return new PublicationSummary(id, title, null, PublicationType.MAGAZINE, 100.0, NOW);
+    }
+}
@@ -0,0 +1,93 @@
+package com.roomih.orderapi.service;
+
+import com.roomih.orderapi.EmbeddedPostgresExtension;
+import com.roomih.orderapi.event.SubscriptionChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(EmbeddedPostgresExtension.class)
+class SubscriptionExpiryJobTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(EmbeddedPostgresExtension.dataSource());
+
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private SimpleMeterRegistry registry;
+    private SubscriptionExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (id, email, password) VALUES (1, 'reader@example.com', 'secret')");
+        // 50 истёкших подписок и 10 действующих, каждая на свою публикацию
+        for (int i = 1; i <= 60; i++) {
+            jdbcTemplate.update("INSERT INTO publications (id, title, price_per_month, type) VALUES (?, ?, 100, 'MAGAZINE')",
+                    i, "Издание " + i);
+            LocalDateTime end = i <= 50 ? NOW.minusDays(i) : NOW.plusDays(i);
+            jdbcTemplate.update("INSERT INTO subscriptions (id, user_id, publication_id, start_date, end_date, "
+                            + "subscription_period, total_price, active) VALUES (?, 1, ?, ?, ?, 1, 100, true)",
+                    i, i, Timestamp.valueOf(end.minusMonths(1)), Timestamp.valueOf(end));
+        }
+        registry = new SimpleMeterRegistry();
+        ApplicationEventPublisher publisher = events::add;
+        job = new SubscriptionExpiryJob(jdbcTemplate, publisher, registry, 7, 3, "UTC");
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.shutdown();
+        jdbcTemplate.update("DELETE FROM subscriptions");
+        jdbcTemplate.update("DELETE FROM publications");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void parallelWorkersExpireEachRowOnce() {
+        assertThat(job.expire(NOW)).isEqualTo(50);
+
+        assertThat(activeIds()).containsExactlyElementsOf(range(51, 60));
+        assertThat(events).hasSize(50).doesNotHaveDuplicates()
+                .allSatisfy(event -> assertThat(((SubscriptionChangedEvent) event).endDate()).isNull());
+        assertThat(registry.get("subscriptions.expiry.expired").counter().count()).isEqualTo(50);
+        // Не меньше 8 порций по 7 строк, плюс по одной пустой на каждый поток
+        assertThat(registry.get("subscriptions.expiry.chunks").counter().count()).isGreaterThanOrEqualTo(8);
+
+        assertThat(job.expire(NOW)).isZero();
+    }
+
+    @Test
+    void rowsLockedByCheckoutAreSkippedInsteadOfWaitedFor() throws Exception {
+        try (Connection checkout = EmbeddedPostgresExtension.dataSource().getConnection()) {
+            checkout.setAutoCommit(false);
+            checkout.createStatement().execute("SELECT * FROM subscriptions WHERE id = 1 FOR UPDATE");
+
+            assertThat(job.expire(NOW)).isEqualTo(49);
+
+            checkout.commit();
+        }
+        assertThat(job.expire(NOW)).isEqualTo(1);
+        assertThat(activeIds()).hasSize(10);
+    }
+
+    private List<Long> activeIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM subscriptions WHERE active ORDER BY id", Long.class);
+    }
+
+    private static List<Long> range(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().toList();
+    }
+}
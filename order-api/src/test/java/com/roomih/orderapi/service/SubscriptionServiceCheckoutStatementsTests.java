@@ -0,0 +1,102 @@
+package com.roomih.orderapi.service;
+
+import com.roomih.orderapi.EmbeddedPostgresExtension;
+import com.roomih.orderapi.RecordingStatementInspector;
+import com.roomih.orderapi.dto.SubscriptionRequest;
+import com.roomih.orderapi.entitlement.EntitlementStore;
+import com.roomih.orderapi.model.Cart;
+import com.roomih.orderapi.model.CartItem;
+import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.model.User;
+import com.roomih.orderapi.service.impl.SubscriptionServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Оформление корзины на настоящей PostgreSQL: число SQL-запросов не зависит от размера корзины,
+ * вставки подписок уходят одним JDBC-пакетом.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", RecordingStatementInspector.PROPERTY})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ExtendWith(EmbeddedPostgresExtension.class)
+@Import({SubscriptionServiceImpl.class, EntitlementStore.class, OptimisticRetry.class, SimpleMeterRegistry.class})
+class SubscriptionServiceCheckoutStatementsTests {
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 40})
+    void checkoutRunsFixedNumberOfStatementsRegardlessOfCartSize(int count) {
+        User user = new User();
+        user.setEmail("buyer" + count + "@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+        Cart cart = new Cart();
+        cart.setUser(user);
+        entityManager.persist(cart);
+        List<SubscriptionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Publication publication = new Publication();
+            publication.setTitle("Издание " + i);
+            publication.setPricePerMonth(100.0);
+            entityManager.persist(publication);
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setPublication(publication);
+            item.setSubscriptionPeriod(3);
+            item.setTotalPrice(300f);
+            entityManager.persist(item);
+            requests.add(request(publication.getId()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = statistics();
+        RecordingStatementInspector.SQL.clear();
+        subscriptionService.createSubscriptionsFromCartRequests(user.getId(), requests);
+        entityManager.flush();
+
+        // Очередной блок id из последовательности берётся раз на 50 строк, смотря сколько осталось от прошлых тестов
+        long sequenceFetches = RecordingStatementInspector.SQL.stream().filter(sql -> sql.contains("nextval")).count();
+        assertThat(sequenceFetches).isLessThanOrEqualTo(1);
+        // Корзина с блокировкой версии, пользователь, публикации (IN), активные подписки (IN), пакет INSERT, очистка корзины
+        assertThat(statistics.getPrepareStatementCount() - sequenceFetches).isEqualTo(6);
+        assertThat(RecordingStatementInspector.SQL).filteredOn(sql -> sql.contains("insert into subscriptions")).hasSize(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(count);
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private static SubscriptionRequest request(Long publicationId) {
+        SubscriptionRequest request = new SubscriptionRequest();
+        request.setPublicationId(publicationId);
+        request.setSubscriptionPeriod(3);
+        request.setQuantity(1);
+        request.setTotalPrice(300.0);
+        return request;
+    }
+}
@@ -0,0 +1,108 @@
+package com.roomih.orderapi.service;
+
+import com.roomih.orderapi.dto.SubscriptionRequest;
+import com.roomih.orderapi.entitlement.EntitlementStore;
+import com.roomih.orderapi.exception.ResourceNotFoundException;
+import com.roomih.orderapi.exception.SubscriptionException;
+import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.model.Subscription;
+import com.roomih.orderapi.model.User;
+import com.roomih.orderapi.repository.CartItemRepository;
+import com.roomih.orderapi.repository.CartRepository;
+import com.roomih.orderapi.repository.PublicationRepository;
+import com.roomih.orderapi.repository.SubscriptionRepository;
+import com.roomih.orderapi.repository.UserRepository;
+import com.roomih.orderapi.service.impl.SubscriptionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SubscriptionServiceCheckoutTests {
+
+    private static final Long USER_ID = 7L;
+
+    private SubscriptionRepository subscriptionRepository;
+    private PublicationRepository publicationRepository;
+    private CartItemRepository cartItemRepository;
+    private UserRepository userRepository;
+    private SubscriptionService subscriptionService;
+
+    @BeforeEach
+    void setUp() {
+        subscriptionRepository = mock(SubscriptionRepository.class);
+        publicationRepository = mock(PublicationRepository.class);
+        cartItemRepository = mock(CartItemRepository.class);
+        userRepository = mock(UserRepository.class);
+        OptimisticRetry optimisticRetry = mock(OptimisticRetry.class);
+        when(optimisticRetry.execute(anyString(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        subscriptionService = new SubscriptionServiceImpl(subscriptionRepository, publicationRepository,
+                cartItemRepository, mock(CartRepository.class), userRepository, mock(EntitlementStore.class),
+                mock(ApplicationEventPublisher.class), optimisticRetry);
+
+        User user = new User();
+        user.setId(USER_ID);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(subscriptionRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void partialFailureReportsConflictsAndClearsOnlySuccessfulItems() {
+        Publication vogue = publication(1L, "Vogue");
+        Publication forbes = publication(2L, "Forbes");
+        when(publicationRepository.findAllById(anySet())).thenReturn(List.of(vogue, forbes));
+        Subscription existing = new Subscription();
+        existing.setPublication(forbes);
+        existing.setEndDate(LocalDateTime.of(2030, 1, 31, 0, 0));
+        when(subscriptionRepository.findByUserIdAndActiveTrueAndPublicationIdIn(eq(USER_ID), anySet()))
+                .thenReturn(List.of(existing));
+
+        assertThatThrownBy(() -> subscriptionService.createSubscriptionsFromCartRequests(USER_ID,
+                List.of(request(1L), request(2L), request(1L))))
+                .isInstanceOf(SubscriptionException.class)
+                .hasMessageStartingWith("Некоторые подписки не были оформлены")
+                .hasMessageContaining("'Forbes': У вас уже есть активная подписка до 31.01.2030")
+                .hasMessageContaining("'Vogue': У вас уже есть активная подписка");
+
+        verify(subscriptionRepository).saveAllAndFlush(argThat(saved -> ((List<?>) saved).size() == 1));
+        verify(cartItemRepository).deleteByCartUserIdAndPublicationIdIn(USER_ID, Set.of(1L));
+        verify(cartItemRepository, never()).deleteByCartUserId(any());
+    }
+
+    @Test
+    void unknownPublicationFailsWholeCheckout() {
+        when(publicationRepository.findAllById(anySet())).thenReturn(List.of(publication(1L, "Vogue")));
+
+        assertThatThrownBy(() -> subscriptionService.createSubscriptionsFromCartRequests(USER_ID,
+                List.of(request(1L), request(99L))))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(subscriptionRepository, never()).saveAllAndFlush(anyList());
+    }
+
+    private static Publication publication(Long id, String title) {
+        Publication publication = new Publication();
+        publication.setId(id);
+        publication.setTitle(title);
+        publication.setPricePerMonth(100.0);
+        return publication;
+    }
+
+    private static SubscriptionRequest request(Long publicationId) {
+        SubscriptionRequest request = new SubscriptionRequest();
+        request.setPublicationId(publicationId);
+        request.setSubscriptionPeriod(3);
+        request.setQuantity(1);
+        request.setTotalPrice(300.0);
+        return request;
+    }
+}
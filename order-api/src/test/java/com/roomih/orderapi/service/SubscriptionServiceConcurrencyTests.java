@@ -0,0 +1,187 @@
+package com.roomih.orderapi.service;
+
+import com.roomih.orderapi.EmbeddedPostgresExtension;
+import com.roomih.orderapi.dto.SubscriptionRequest;
+import com.roomih.orderapi.entitlement.EntitlementStore;
+import com.roomih.orderapi.exception.SubscriptionException;
+import com.roomih.orderapi.model.Cart;
+import com.roomih.orderapi.model.Publication;
+import com.roomih.orderapi.model.Subscription;
+import com.roomih.orderapi.model.User;
+import com.roomih.orderapi.repository.CartRepository;
+import com.roomih.orderapi.repository.PublicationRepository;
+import com.roomih.orderapi.repository.SubscriptionRepository;
+import com.roomih.orderapi.repository.UserRepository;
+import com.roomih.orderapi.service.impl.SubscriptionServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Параллельные запросы к подпискам на настоящей PostgreSQL: уникальный индекс активных подписок,
+ * повтор при конфликте версий и версия корзины при оформлении.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({SubscriptionServiceImpl.class, EntitlementStore.class, OptimisticRetry.class, SimpleMeterRegistry.class})
+@ExtendWith(EmbeddedPostgresExtension.class)
+class SubscriptionServiceConcurrencyTests {
+
+    private static final int CALLS = 300;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PublicationRepository publicationRepository;
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void connectionPool(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS);
+    }
+
+    @Test
+    void parallelSubscribeCallsCreateExactlyOneActiveSubscription() throws Exception {
+        Long userId = user("racer@example.com");
+        Long publicationId = publication("Forbes");
+        SubscriptionRequest request = request(publicationId);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Subscription>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLS; i++) {
+            calls.add(executor.submit(() -> {
+                start.await();
+                return subscriptionService.createSubscription(userId, request);
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        int rejected = 0;
+        for (Future<Subscription> call : calls) {
+            try {
+                call.get();
+                created++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(SubscriptionException.class)
+                        .hasMessage("У вас уже есть активная подписка на эту публикацию");
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(created).isEqualTo(1);
+        assertThat(rejected).isEqualTo(CALLS - 1);
+        assertThat(subscriptionRepository.findByUserIdAndActiveTrue(userId)).hasSize(1);
+        assertThat(subscriptionService.checkEntitlement(userId, publicationId).active()).isTrue();
+    }
+
+    @Test
+    void staleWriteIsRetriedOnFreshState() throws Exception {
+        Long userId = user("editor@example.com");
+        Long subscriptionId = subscriptionService.createSubscription(userId, request(publication("Nature"))).getId();
+        ExecutorService concurrent = Executors.newSingleThreadExecutor();
+        AtomicInteger attempts = new AtomicInteger();
+
+        Subscription saved = optimisticRetry.execute("test", () -> {
+            Subscription current = subscriptionRepository.findById(subscriptionId).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                // Другой запрос меняет подписку между нашими чтением и записью
+                await(concurrent.submit(() -> subscriptionService.updateSubscriptionPeriod(userId, subscriptionId, 6)));
+            }
+            current.setTotalPrice(current.getTotalPrice() + 1);
+            return subscriptionRepository.saveAndFlush(current);
+        });
+        concurrent.shutdown();
+
+        assertThat(attempts).hasValue(2);
+        assertThat(saved.getSubscriptionPeriod()).isEqualTo(6);
+        assertThat(saved.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void checkoutConflictsWithCartChangedAtTheSameTime() {
+        Long userId = user("checkout@example.com");
+        Cart cart = new Cart();
+        cart.setUser(userRepository.getReferenceById(userId));
+        cartRepository.save(cart);
+        SubscriptionRequest request = request(publication("Wired"));
+        ExecutorService concurrent = Executors.newSingleThreadExecutor();
+
+        // Изменение корзины, начатое до оформления, не должно молча перезаписать его результат
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cartRepository.findForUpdateByUserId(userId).orElseThrow();
+            await(concurrent.submit(() -> subscriptionService.createSubscriptionsFromCartRequests(userId, List.of(request))));
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        concurrent.shutdown();
+
+        assertThat(cartRepository.findByUserId(userId).orElseThrow().getVersion()).isEqualTo(1);
+        assertThat(subscriptionRepository.findByUserIdAndActiveTrue(userId)).hasSize(1);
+    }
+
+    private Long user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        return userRepository.save(user).getId();
+    }
+
+    private Long publication(String title) {
+        Publication publication = new Publication();
+        publication.setTitle(title);
+        publication.setPricePerMonth(299.99);
+        return publicationRepository.save(publication).getId();
+    }
+
+    private static SubscriptionRequest request(Long publicationId) {
+        SubscriptionRequest request = new SubscriptionRequest();
+        request.setPublicationId(publicationId);
+        request.setSubscriptionPeriod(3);
+        request.setQuantity(1);
+        request.setTotalPrice(899.97);
+        return request;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.roomih.orderapi.service;
+
+import com.roomih.orderapi.EmbeddedPostgresExtension;
+import com.roomih.orderapi.model.User;
+import com.roomih.orderapi.security.TokenVersionCache;
+import com.roomih.orderapi.service.impl.UserServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сохранение пользователя на настоящей PostgreSQL: смена роли отзывает выданные токены
+ * (кэш версий сбрасывается после коммита), а правка профиля — нет.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ExtendWith(EmbeddedPostgresExtension.class)
+@Import({UserServiceImpl.class, TokenVersionCache.class})
+class UserServiceTests {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    private Long adminId;
+
+    @BeforeEach
+    void seed() {
+        User admin = new User();
+        // Один из тестов коммитит, поэтому адреса не должны повторяться
+        admin.setEmail("boss" + SEQUENCE.incrementAndGet() + "@example.com");
+        admin.setPassword("secret");
+        admin.setRole("ADMIN");
+        entityManager.persist(admin);
+        entityManager.flush();
+        entityManager.clear();
+        adminId = admin.getId();
+        assertThat(tokenVersionCache.currentVersion(adminId)).isZero();
+    }
+
+    @Test
+    void demotingManagedUserRevokesTokensAfterCommit() {
+        User admin = userService.getUserById(adminId);
+        admin.setRole("USER");
+        userService.saveUser(admin);
+        entityManager.flush();
+
+        assertThat(storedTokenVersion()).isEqualTo(1);
+        // До коммита кэш не сбрасывается: иначе параллельный запрос перечитал бы старую версию и закэшировал её
+        assertThat(tokenVersionCache.isCurrent(adminId, 0)).isTrue();
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertThat(tokenVersionCache.isCurrent(adminId, 0)).isFalse();
+        assertThat(tokenVersionCache.currentVersion(adminId)).isEqualTo(1);
+    }
+
+    @Test
+    void demotingDetachedUserRevokesTokens() {
+        User admin = userService.getUserById(adminId);
+        entityManager.detach(admin);
+        admin.setRole("USER");
+        userService.saveUser(admin);
+        entityManager.flush();
+
+        assertThat(storedTokenVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void profileChangesKeepTokens() {
+        User admin = userService.getUserById(adminId);
+        admin.setCity("Минск");
+        userService.saveUser(admin);
+        entityManager.flush();
+
+        assertThat(storedTokenVersion()).isZero();
+        assertThat(tokenVersionCache.isCurrent(adminId, 0)).isTrue();
+    }
+
+    private int storedTokenVersion() {
+        return jdbcTemplate.queryForObject("SELECT token_version FROM users WHERE id = ?", Integer.class, adminId);
+    }
+}
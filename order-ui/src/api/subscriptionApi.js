@@ -30,7 +30,7 @@ export const cancelSubscription = (id) => {
     .then(response => response.data);
 };
 
-export const checkActiveSubscription = (publicationId) => {
-  return axiosInstance.get(`/api/subscriptions/check/${publicationId}`)
+export const checkActiveSubscriptions = (publicationIds) => {
+  return axiosInstance.post('/api/subscriptions/check', { publicationIds })
     .then(response => response.data);
-}; 
\ No newline at end of file
+};
@@ -3,6 +3,7 @@ import axios from 'axios';
 import { jwtDecode } from 'jwt-decode';
 
 const AuthContext = createContext(null);
+let refreshInFlight = null;
 
 // Базовая конфигурация axios
 axios.defaults.baseURL = 'http://localhost:8080';
@@ -54,7 +55,7 @@ export const AuthProvider = ({ children }) => {
         throw new Error('Неверный ответ сервера');
       }
 
-      const { token, role } = response.data;
+      const { token, role, refreshToken } = response.data;
 
       try {
         const decodedToken = jwtDecode(token);
@@ -65,6 +66,7 @@ export const AuthProvider = ({ children }) => {
         }
 
         localStorage.setItem('token', token);
+        localStorage.setItem('refreshToken', refreshToken);
         const userData = {
           email: email,
           role: role || decodedToken.role || decodedToken.authorities?.[0]?.authority || 'USER'
@@ -96,22 +98,55 @@ export const AuthProvider = ({ children }) => {
 
   const logout = () => {
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('user');
     setUser(null);
     axios.interceptors.request.handlers = [];
   };
 
-  const refreshToken = async () => {
+  // Refresh-токен одноразовый: сервер каждый раз выдаёт новую пару, а повторное
+  // предъявление старого завершает все сеансы. Поэтому параллельные вызовы ждут один запрос
+  const refreshAccessToken = () => {
+    if (!refreshInFlight) {
+      refreshInFlight = exchangeRefreshToken().finally(() => {
+        refreshInFlight = null;
+      });
+    }
+    return refreshInFlight;
+  };
+
+  // Вкладки делят refresh-токен из localStorage и обмениваются им под общей блокировкой:
+  // вкладка, дождавшаяся её после другой, берёт уже обновлённую пару, а не предъявляет старый токен
+  const exchangeRefreshToken = async () => {
+    const presented = localStorage.getItem('refreshToken');
+    if (navigator.locks) {
+      return navigator.locks.request('auth-refresh', () => exchangeIfCurrent(presented));
+    }
+    return exchangeIfCurrent(presented);
+  };
+
+  const exchangeIfCurrent = async (presented) => {
+    const current = localStorage.getItem('refreshToken');
+    if (current && current !== presented) {
+      applyToken(localStorage.getItem('token'));
+      return;
+    }
     try {
-      const response = await axios.post('/api/auth/refresh');
-      const newToken = response.data.accessToken;
-      setToken(newToken);
-      localStorage.setItem('token', newToken);
+      const response = await axios.post('/api/auth/refresh', { refreshToken: current });
+      const { accessToken, refreshToken } = response.data;
+      localStorage.setItem('token', accessToken);
+      localStorage.setItem('refreshToken', refreshToken);
+      applyToken(accessToken);
     } catch (error) {
       logout();
     }
   };
 
+  const applyToken = (accessToken) => {
+    setupAxiosInterceptors(accessToken);
+    setToken(accessToken);
+  };
+
   useEffect(() => {
     const initAuth = () => {
       try {
@@ -120,12 +155,16 @@ export const AuthProvider = ({ children }) => {
           const decodedToken = jwtDecode(token);
           const currentTime = Date.now() / 1000;
 
+          const savedUser = localStorage.getItem('user');
           if (decodedToken.exp && decodedToken.exp > currentTime) {
-            const savedUser = localStorage.getItem('user');
             if (savedUser) {
               setUser(JSON.parse(savedUser));
               setupAxiosInterceptors(token);
+              setToken(token);
             }
+          } else if (savedUser && localStorage.getItem('refreshToken')) {
+            setUser(JSON.parse(savedUser));
+            refreshAccessToken();
           } else {
             localStorage.removeItem('token');
             localStorage.removeItem('user');
@@ -145,14 +184,26 @@ export const AuthProvider = ({ children }) => {
     initAuth();
   }, []);
 
+  // Другая вкладка обновила токены или вышла: таймер обновления переезжает на новый токен
+  useEffect(() => {
+    const onStorage = (event) => {
+      if (event.key === 'token' && event.newValue) {
+        applyToken(event.newValue);
+      } else if (event.key === 'refreshToken' && !event.newValue) {
+        logout();
+      }
+    };
+    window.addEventListener('storage', onStorage);
+    return () => window.removeEventListener('storage', onStorage);
+  }, []);
+
+  // Access-токен живёт несколько минут, обновляем его заранее
   useEffect(() => {
     if (token) {
       const decoded = jwtDecode(token);
-      const currentTime = Date.now() / 1000;
-      
-      if (decoded.exp < currentTime) {
-        refreshToken();
-      }
+      const delay = Math.max(decoded.exp * 1000 - Date.now() - 30000, 0);
+      const timer = setTimeout(refreshAccessToken, delay);
+      return () => clearTimeout(timer);
     }
   }, [token]);
 
@@ -35,6 +35,8 @@ function UserCart() {
   const handleCreateSubscription = async () => {
     setIsProcessing(true);
     setError('');
+    // Один ключ на нажатие: повтор того же запроса не оформит подписки второй раз
+    const idempotencyKey = crypto.randomUUID();
 
     try {
       const subscriptions = cart.map(item => ({
@@ -48,7 +50,8 @@ function UserCart() {
         { subscriptions }, 
         {
           headers: {
-            'Authorization': `Bearer ${localStorage.getItem('token')}`
+            'Authorization': `Bearer ${localStorage.getItem('token')}`,
+            'Idempotency-Key': idempotencyKey
           }
         }
       );
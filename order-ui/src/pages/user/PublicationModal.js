@@ -3,7 +3,6 @@ import { FaTimes } from 'react-icons/fa';
 import { toast } from 'react-toastify';
 import 'react-toastify/dist/ReactToastify.css';
 import { useCart } from '../../context/CartContext';
-import { checkActiveSubscription } from '../../api/subscriptionApi';
 
 // Импортируем изображения
 import NationalGeographic from '../../catalog_images/National_Geographic.jpg';
@@ -40,10 +39,9 @@ const newspapers = [
   'The Washington Post'
 ];
 
-function PublicationModal({ publication, onClose }) {
+// Статус подписки приходит из каталога: он проверяет все публикации одним запросом
+function PublicationModal({ publication, subscriptionStatus, statusLoading, onClose }) {
   const [selectedPeriod, setSelectedPeriod] = useState(1);
-  const [activeSubscription, setActiveSubscription] = useState(null);
-  const [loading, setLoading] = useState(true);
   const periods = [1, 3, 6, 12];
   const { cart, addToCart } = useCart();
 
@@ -55,21 +53,6 @@ function PublicationModal({ publication, onClose }) {
     };
   }, []);
 
-  useEffect(() => {
-    const fetchSubscriptionStatus = async () => {
-      try {
-        const response = await checkActiveSubscription(publication.id);
-        setActiveSubscription(response);
-        setLoading(false);
-      } catch (error) {
-        console.error('Ошибка при проверке подписки:', error);
-        setLoading(false);
-      }
-    };
-
-    fetchSubscriptionStatus();
-  }, [publication.id]);
-
   const formatDate = (dateString) => {
     const date = new Date(dateString);
     return date.toLocaleDateString('ru-RU', {
@@ -161,12 +144,12 @@ function PublicationModal({ publication, onClose }) {
             <div className="modal-actions">
               <p>Цена за месяц: {publication.pricePerMonth} руб.</p>
               
-              {loading ? (
+              {statusLoading ? (
                 <p>Проверка статуса подписки...</p>
-              ) : activeSubscription?.hasActiveSubscription ? (
+              ) : subscriptionStatus?.active ? (
                 <div className="active-subscription-info">
                   <div className="active-subscription-message">
-                    У вас есть активная подписка до {formatDate(activeSubscription.endDate)}
+                    У вас есть активная подписка до {formatDate(subscriptionStatus.endDate)}
                   </div>
                 </div>
               ) : (
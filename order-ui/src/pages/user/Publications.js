@@ -7,6 +7,7 @@ import { useNavigate } from 'react-router-dom';
 import UserHeader from './Header';
 import UserFooter from './Footer';
 import PublicationModal from './PublicationModal';
+import { checkActiveSubscriptions } from '../../api/subscriptionApi';
 import { useAuth } from '../../context/AuthContext';
 import '../../styles/global.css';
 
@@ -65,6 +66,7 @@ function UserPublications() {
   const [allPublications, setAllPublications] = useState([]);
   const [filteredPublications, setFilteredPublications] = useState([]);
   const [selectedPublication, setSelectedPublication] = useState(null);
+  const [subscriptionStatuses, setSubscriptionStatuses] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [filters, setFilters] = useState({
@@ -140,6 +142,19 @@ function UserPublications() {
     fetchPublications();
   }, [navigate]);
 
+  // Статусы подписок на весь каталог одним запросом, а не отдельным на каждую открытую карточку
+  useEffect(() => {
+    if (allPublications.length === 0) {
+      return;
+    }
+    checkActiveSubscriptions(allPublications.map(publication => publication.id))
+      .then(setSubscriptionStatuses)
+      .catch(error => {
+        console.error('Ошибка при проверке подписок:', error);
+        setSubscriptionStatuses({});
+      });
+  }, [allPublications]);
+
   // Функция для получения случайных тегов (для демонстрации)
   const getRandomTags = () => {
     const numTags = Math.floor(Math.random() * 3) + 1; // 1-3 тега
@@ -424,6 +439,8 @@ function UserPublications() {
         {selectedPublication && (
           <PublicationModal 
             publication={selectedPublication} 
+            subscriptionStatus={subscriptionStatuses?.[selectedPublication.id]}
+            statusLoading={subscriptionStatuses === null}
             onClose={() => setSelectedPublication(null)}
           />
         )}